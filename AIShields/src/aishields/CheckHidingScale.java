@@ -0,0 +1,92 @@
+package aishields;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import aishields.core.Edge;
+import aishields.core.Graph;
+import aishields.core.GraphGenerator;
+import aishields.linkprediction.algorithms.LinkPredictionAlgorithm;
+import aishields.linkprediction.algorithms.local.*;
+import aishields.optimiser.HidingEvaluator;
+import aishields.optimiser.HidingOptimiser;
+import aishields.optimiser.LazyGreedyOptimiser;
+import aishields.utils.Utils;
+
+/**
+ * Checking how hiding an edge scales with the size of the network. For every size a Barabasi-Albert network is
+ * generated, the edge between a random node and a random neighbour of it is hidden, and the lazy greedy
+ * optimiser chooses flips hiding it, reporting the time of scoring all non-edges, the heap used by an evaluator
+ * whose workers share these scores, and the time of the optimisation, which scores them again for its own evaluator.
+ *
+ * Arguments of the form key=value override the defaults, with keys "sizes" (comma-separated), "degree",
+ * "budget", "candidates" (the maximal number of candidate moves) and "workers".
+ *
+ * @author Marcin Waniek
+ */
+public class CheckHidingScale {
+
+	private static final List<Integer> DEFAULT_SIZES = Utils.aList(10000, 100000);
+	private static final int DEFAULT_DEGREE = 8;
+	private static final int DEFAULT_BUDGET = 3;
+	private static final int DEFAULT_CANDIDATES = 200;
+
+	public static void main(String[] args) {
+		Map<String, String> opts = new LinkedHashMap<>();
+		for (String arg : args)
+			if (arg.contains("="))
+				opts.put(arg.substring(0, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+		List<Integer> sizes = opts.containsKey("sizes")
+				? Arrays.stream(opts.get("sizes").split(",")).map(s -> Integer.parseInt(s.trim()))
+						.collect(Collectors.toList())
+				: DEFAULT_SIZES;
+		int degree = getInt(opts, "degree", DEFAULT_DEGREE);
+		int budget = getInt(opts, "budget", DEFAULT_BUDGET);
+		int maxCandidates = getInt(opts, "candidates", DEFAULT_CANDIDATES);
+		int workers = getInt(opts, "workers", HidingOptimiser.DEFAULT_WORKERS);
+		List<LinkPredictionAlgorithm> algs = Utils.aList(new CommonNeighboursAlgorithm(), new JaccardAlgorithm(),
+				new AdamicAdarAlgorithm(), new ResourceAllocationAlgorithm());
+
+		DecimalFormat df = new DecimalFormat("#.##");
+		for (int size : sizes) {
+			Utils.RAND.setSeed(size);
+			Graph g = GraphGenerator.generateBarabasiAlbertGraph(size, degree);
+			int ev = Utils.RAND.nextInt(size);
+			Edge h = g.e(ev, g.getNeighs(ev).getRandom());
+			g.removeEdge(h);
+			List<Edge> candidates = HidingOptimiser.getCandidates(g, h);
+			candidates = new ArrayList<>(candidates.subList(0, Math.min(maxCandidates, candidates.size())));
+
+			long start = System.nanoTime();
+			HidingEvaluator evaluator = new HidingEvaluator(g, h, algs, workers);
+			double before = evaluator.getAUC();
+			double scoring = (System.nanoTime() - start) / 1e9;
+			double heap = usedHeapMB();
+
+			start = System.nanoTime();
+			List<Edge> flips = new LazyGreedyOptimiser(algs, workers).optimise(g, h, candidates, budget);
+			double optimising = (System.nanoTime() - start) / 1e9;
+			evaluator.setFlips(flips);
+
+			System.out.println("n=" + size + ", m=" + g.edgesCount() + ", hidden edge of degree "
+					+ g.getDegree(ev) + ", " + candidates.size() + " candidates: AUC " + df.format(before) + " -> "
+					+ df.format(evaluator.getAUC()) + " with " + flips + ", scoring " + df.format(scoring)
+					+ "s, optimising " + df.format(optimising) + "s, heap used " + df.format(heap) + "MB");
+		}
+	}
+
+	private static double usedHeapMB() {
+		Runtime rt = Runtime.getRuntime();
+		System.gc();
+		return (rt.totalMemory() - rt.freeMemory()) / 1e6;
+	}
+
+	private static int getInt(Map<String, String> opts, String key, int def) {
+		return opts.containsKey(key) ? Integer.parseInt(opts.get(key).trim()) : def;
+	}
+}
@@ -0,0 +1,152 @@
+package aishields;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+import aishields.core.Graph;
+import aishields.core.GraphGenerator;
+import aishields.linkprediction.algorithms.LinkPredictionAlgorithm;
+import aishields.linkprediction.algorithms.local.*;
+import aishields.utils.Utils;
+
+/**
+ * Generating link prediction survey instances for a grid of network models, network sizes, average degrees,
+ * hiding budgets and sets of algorithms. Every cell of the grid is written to its own directory, and cells are
+ * generated concurrently, sharing the available processors.
+ *
+ * Every dimension of the grid can be overridden with an argument of the form key=value1,value2,..., with keys
+ * "models", "sizes", "degrees", "budgets" and "algs", while "instances=k" sets the number of instances per cell
+ * and "cells=k" the number of cells generated at the same time. With the argument "resume", instances saved by
+ * an interrupted run are kept and only the missing ones are generated.
+ *
+ * @author Marcin Waniek
+ */
+public class GenerateInstanceGrid {
+
+	private static final Map<String, BiFunction<Integer,Integer,Graph>> MODELS = new LinkedHashMap<>();
+	static {
+		MODELS.put("ba", (n,d) -> GraphGenerator.generateBarabasiAlbertGraph(n,d));
+		MODELS.put("er", (n,d) -> GraphGenerator.generateErdosRenyiGraph(n, d));
+		MODELS.put("sw", (n,d) -> GraphGenerator.generateSmallWorldGraph(n, d, .25));
+	}
+	private static final Map<String, List<LinkPredictionAlgorithm>> ALG_SETS = new LinkedHashMap<>();
+	static {
+		ALG_SETS.put("all", GenerateLinkPredictionInstances.DEFAULT_PARAMS.getAlgorithms());
+		ALG_SETS.put("neighbours", Utils.aList(new CommonNeighboursAlgorithm(), new SaltonAlgorithm(),
+				new JaccardAlgorithm(), new SorensenAlgorithm(), new HubPromotedAlgorithm(),
+				new HubDepressedAlgorithm(), new LeichtHolmeNewmanAlgorithm()));
+		ALG_SETS.put("weighted", Utils.aList(new AdamicAdarAlgorithm(), new ResourceAllocationAlgorithm()));
+	}
+
+	private static final String OUTPUT_PATH = "output/ai-shields/linkpred-grid/";
+	private static final List<String> DEFAULT_MODELS = new ArrayList<>(MODELS.keySet());
+	private static final List<Integer> DEFAULT_SIZES = Utils.aList(15, 20, 26);
+	private static final List<Integer> DEFAULT_DEGREES = Utils.aList(4, 8);
+	private static final List<Integer> DEFAULT_BUDGETS = Utils.aList(3);
+	private static final List<String> DEFAULT_ALG_SETS = Utils.aList("all");
+	private static final int DEFAULT_INSTANCES = 100;
+	private static final int DEFAULT_CELL_WORKERS = 2;
+
+	public static void main(String[] args) {
+		Map<String, String> opts = new LinkedHashMap<>();
+		for (String arg : args)
+			if (arg.contains("="))
+				opts.put(arg.substring(0, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+		boolean resume = Arrays.asList(args).contains("resume");
+
+		List<String> models = getStrings(opts, "models", DEFAULT_MODELS);
+		List<Integer> sizes = getInts(opts, "sizes", DEFAULT_SIZES);
+		List<Integer> degrees = getInts(opts, "degrees", DEFAULT_DEGREES);
+		List<Integer> budgets = getInts(opts, "budgets", DEFAULT_BUDGETS);
+		List<String> algSets = getStrings(opts, "algs", DEFAULT_ALG_SETS);
+		int instances = getInts(opts, "instances", Utils.aList(DEFAULT_INSTANCES)).get(0);
+		int cellWorkers = getInts(opts, "cells", Utils.aList(DEFAULT_CELL_WORKERS)).get(0);
+
+		int workers = Math.max(1, Runtime.getRuntime().availableProcessors() / cellWorkers);
+		Map<String, GenerationParameters> cells = new LinkedHashMap<>();
+		for (String model : models)
+			for (int size : sizes)
+				for (int degree : degrees)
+					for (int budget : budgets)
+						for (String algSet : algSets) {
+							String cell = model + "-n" + size + "-d" + degree + "-b" + budget + "-" + algSet;
+							if (size > GenerationParameters.MAX_NETWORK_SIZE) {
+								System.err.println("Skipping cell " + cell + ", nodes of networks larger than "
+										+ GenerationParameters.MAX_NETWORK_SIZE + " cannot be named with letters.");
+								continue;
+							}
+							GenerationParameters p = new GenerationParameters(
+									GenerateLinkPredictionInstances.DEFAULT_PARAMS)
+									.setGenerators(Utils.aList(MODELS.get(model)))
+									.setAlgorithms(ALG_SETS.get(algSet)).setInstancesPerModel(instances)
+									.setNetworkSize(size).setAverageDegree(degree).setHidingBudget(budget)
+									.setWorkers(workers);
+							if (!MODELS.containsKey(model) || !ALG_SETS.containsKey(algSet))
+								System.err.println("Skipping cell " + cell + ", unknown model or set of algorithms.");
+							else if (budget > p.getRemOptions() + p.getAddOptions())
+								System.err.println("Skipping cell " + cell + ", budget exceeds the number of options.");
+							else
+								cells.put(cell, p.setOutputPath(OUTPUT_PATH + cell + "/"));
+						}
+
+		long start = System.nanoTime();
+		ExecutorService pool = Executors.newFixedThreadPool(cellWorkers);
+		Map<String, Future<GenerationReport>> futures = new LinkedHashMap<>();
+		for (Map.Entry<String, GenerationParameters> cell : cells.entrySet())
+			futures.put(cell.getKey(), pool.submit(
+					() -> GenerateLinkPredictionInstances.generateAllInstances(cell.getValue(), resume)));
+
+		DecimalFormat df = new DecimalFormat("#.##");
+		GenerationReport total = new GenerationReport();
+		try {
+			for (Map.Entry<String, Future<GenerationReport>> cell : futures.entrySet()) {
+				GenerationReport report = cell.getValue().get();
+				total = total.add(report);
+				System.out.println("Cell " + cell.getKey() + ": " + describe(report, df) + ", heap used "
+						+ df.format(usedHeapMB()) + "MB");
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			pool.shutdownNow();
+			if (e instanceof InterruptedException)
+				Thread.currentThread().interrupt();
+			throw new RuntimeException("Error when generating the grid of instances.", e);
+		} finally {
+			pool.shutdown();
+		}
+		// cells run concurrently, so their times are not summed
+		System.out.println("Total: " + describe(total.withSeconds((System.nanoTime() - start) / 1e9), df));
+	}
+
+	private static String describe(GenerationReport r, DecimalFormat df) {
+		return r.getInstances() + " eye and shield instances in " + df.format(r.getSeconds()) + "s ("
+				+ df.format(r.getThroughput()) + "/s"
+				+ (r.getAllocatedBytes() < 0 ? ""
+						: ", " + df.format(r.getAllocatedBytes() / 1e6) + "MB allocated by instance threads")
+				+ ")";
+	}
+
+	private static double usedHeapMB() {
+		Runtime rt = Runtime.getRuntime();
+		return (rt.totalMemory() - rt.freeMemory()) / 1e6;
+	}
+
+	private static List<String> getStrings(Map<String, String> opts, String key, List<String> defaults) {
+		return opts.containsKey(key) ? Arrays.asList(opts.get(key).split(",")) : defaults;
+	}
+
+	private static List<Integer> getInts(Map<String, String> opts, String key, List<Integer> defaults) {
+		return opts.containsKey(key)
+				? getStrings(opts, key, null).stream().map(s -> Integer.parseInt(s.trim())).collect(Collectors.toList())
+				: defaults;
+	}
+}
@@ -4,12 +4,20 @@ import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Stroke;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -21,13 +29,16 @@ import aishields.core.Ranking;
 import aishields.experiment.ExperimentResult;
 import aishields.experiment.Row;
 import aishields.linkprediction.AreaUnderROCCurve;
+import aishields.linkprediction.EvaluationCache;
 import aishields.linkprediction.algorithms.LinkPredictionAlgorithm;
 import aishields.linkprediction.algorithms.local.*;
+import aishields.optimiser.HidingEvaluator;
+import aishields.utils.StageStatistics;
 import aishields.utils.Utils;
 import aishields.utils.anet.ANETFile;
 import aishields.utils.anet.GraphExporter;
 import aishields.utils.anet.GraphImporter;
-import aishields.utils.visualizing.GraphVisualizer;
+import aishields.utils.visualizing.BatchGraphRenderer;
 import aishields.utils.visualizing.VisualParameters;
 import aishields.utils.visualizing.layout.CircleNodeLayout;
 
@@ -46,14 +57,15 @@ public class GenerateLinkPredictionInstances {
 			new SaltonAlgorithm(), new JaccardAlgorithm(), new SorensenAlgorithm(), new HubPromotedAlgorithm(),
 			new HubDepressedAlgorithm(), new LeichtHolmeNewmanAlgorithm(), new AdamicAdarAlgorithm(),
 			new ResourceAllocationAlgorithm());
+	private static final EvaluationCache<BestAlgorithm> BEST_ALGS = new EvaluationCache<>(1 << 16);
 	
 	private static final String OUTPUT_PATH = "output/ai-shields/linkpred/";
-	private static final String EYE_OUTPUT_RES_FILE = OUTPUT_PATH + "linkpred-eye.csv";
-	private static final String EYE_OUTPUT_ANET_DIR = OUTPUT_PATH + "linkpred-eye-anet/";
-	private static final String EYE_OUTPUT_IMAGE_DIR = OUTPUT_PATH + "linkpred-eye-image/";
-	private static final String SHIELD_OUTPUT_RES_FILE = OUTPUT_PATH + "linkpred-shield.csv";
-	private static final String SHIELD_OUTPUT_ANET_DIR = OUTPUT_PATH + "linkpred-shield-anet/";
-	private static final String SHIELD_OUTPUT_IMAGE_DIR = OUTPUT_PATH + "linkpred-shield-image/";
+	private static final String EYE_OUTPUT_RES_FILE = "linkpred-eye.csv";
+	private static final String EYE_OUTPUT_ANET_DIR = "linkpred-eye-anet/";
+	private static final String EYE_OUTPUT_IMAGE_DIR = "linkpred-eye-image/";
+	private static final String SHIELD_OUTPUT_RES_FILE = "linkpred-shield.csv";
+	private static final String SHIELD_OUTPUT_ANET_DIR = "linkpred-shield-anet/";
+	private static final String SHIELD_OUTPUT_IMAGE_DIR = "linkpred-shield-image/";
 	private static final int INSTANCES_PER_MODEL = 334;
 	protected static final int NETWORK_SIZE = 15;
 	protected static final int AVERAGE_DEGREE = 4;
@@ -61,127 +73,291 @@ public class GenerateLinkPredictionInstances {
 	private static final int ADD_OPTIONS = 4;
 	private static final int HIDING_BUDGET = 3;
 	private static final long REPEATABLE_SEED = 1138;
+	private static final int WORKERS = Runtime.getRuntime().availableProcessors();
+	private static final int FLUSH_EVERY = 10;
+	
+	public static final GenerationParameters DEFAULT_PARAMS = new GenerationParameters(OUTPUT_PATH, GENS, ALGS)
+			.setInstancesPerModel(INSTANCES_PER_MODEL).setNetworkSize(NETWORK_SIZE).setAverageDegree(AVERAGE_DEGREE)
+			.setRemOptions(REM_OPTIONS).setAddOptions(ADD_OPTIONS).setHidingBudget(HIDING_BUDGET).setWorkers(WORKERS);
 	
 	private static final double MAX_SCORE_REQ = .025;
 	private static final double MIN_SCORE_REQ = -.025;
 	private static final double ST_DEV_REQ = .025;
+	private static final double MOVE_NOISE = 1e-9;
 	
+	/**
+	 * With the argument "resume", instances saved by an interrupted run are kept and only the missing ones
+	 * are generated. With the argument "render", saved instances are only rendered again.
+	 */
 	public static void main(String[] args) {
-		generateEyeInstances();
-		generateShieldInstances();
+		boolean resume = Arrays.asList(args).contains("resume");
+		if (!Arrays.asList(args).contains("render"))
+			generateAllInstances(resume);
 		
 		printEyeInstances();
 		printShieldInstances();
 	}
 	
 	public static void generateEyeInstances() {
-		Utils.RAND.setSeed(REPEATABLE_SEED);
-		ExperimentResult eyeRes = new ExperimentResult(OUTPUT_PATH, Utils.aList("linkpred-eye-survey"),
+		generateEyeInstances(false);
+	}
+	
+	public static void generateEyeInstances(boolean resume) {
+		generateEyeInstances(DEFAULT_PARAMS, resume);
+	}
+	
+	public static GenerationReport generateEyeInstances(GenerationParameters p, boolean resume) {
+		return generateInstances(p, (gen, id) -> Collections.singletonList(generateEyeInstance(p, gen, id)), "eye",
+				Utils.aList(eyeResult(p)), Utils.aList(p.getOutputPath() + EYE_OUTPUT_RES_FILE), resume);
+	}
+	
+	private static ExperimentResult eyeResult(GenerationParameters p) {
+		return new ExperimentResult(p.getOutputPath(), Utils.aList("linkpred-eye-survey"),
 				Utils.aList("id", "correct", "alg", "algProb", "edges"));
-		int id = 0;
-		for (BiFunction<Integer,Integer,Graph> gen : GENS)
-			for (int instance = 0; instance < INSTANCES_PER_MODEL; ++instance){
-				Graph g = gen.apply(NETWORK_SIZE, AVERAGE_DEGREE);
-				int evader = Utils.argmax(g.nodesStream().boxed(), i -> g.getDegree(i));
-				Edge h = g.e(evader, g.getNeighs(evader).getRandom());
-				g.removeEdge(h);
-				Ranking<LinkPredictionAlgorithm> rank = algsRank(g, h);
-				eyeRes.addRowDontPrint(id, edgeToLetters(h), rank.getBest().getName(), rank.getBestScore(),
-						g.edgesStream().map(e -> edgeToLetters(e)).collect(Collectors.joining(",")));
-				exportGraph(g, h, EYE_OUTPUT_ANET_DIR + id + ".anet");
-				++id;
-				if (id % 10 == 0)
-					System.out.println("Finished " + id + " eye instances.");
-			}
-		eyeRes.saveResult(EYE_OUTPUT_RES_FILE);
+	}
+	
+	private static Object[] generateEyeInstance(GenerationParameters p, BiFunction<Integer,Integer,Graph> gen,
+			int id) {
+		return generateEyeInstance(p, new HiddenEdgeSample(p, gen), id);
+	}
+	
+	private static Object[] generateEyeInstance(GenerationParameters p, HiddenEdgeSample s, int id) {
+		BestAlgorithm bestAlg = s.getBestAlgorithm(p.getAlgorithms());
+		exportGraph(s.g, s.h, p.getOutputPath() + EYE_OUTPUT_ANET_DIR + id + ".anet");
+		return new Object[] {id, edgeToLetters(s.h), bestAlg.getAlgorithm().getName(), bestAlg.getAUC(),
+				s.g.edgesStream().map(e -> edgeToLetters(e)).collect(Collectors.joining(","))};
 	}
 	
 	public static void generateShieldInstances() {
-		Utils.RAND.setSeed(REPEATABLE_SEED);
-		ExperimentResult shieldRes = new ExperimentResult(OUTPUT_PATH, Utils.aList("linkpred-shield-survey"),
+		generateShieldInstances(false);
+	}
+	
+	public static void generateShieldInstances(boolean resume) {
+		generateShieldInstances(DEFAULT_PARAMS, resume);
+	}
+	
+	public static GenerationReport generateShieldInstances(GenerationParameters p, boolean resume) {
+		List<StageStatistics> stats = shieldStats(p);
+		GenerationReport res = generateInstances(p,
+				(gen, id) -> Collections.singletonList(generateShieldInstance(p, stats, gen, id, null)), "shield",
+				Utils.aList(shieldResult(p)), Utils.aList(p.getOutputPath() + SHIELD_OUTPUT_RES_FILE), resume);
+		printShieldStats(p, stats);
+		return res;
+	}
+	
+	private static ExperimentResult shieldResult(GenerationParameters p) {
+		return new ExperimentResult(p.getOutputPath(), Utils.aList("linkpred-shield-survey"),
 				Utils.aList("id","correct","alg","algProb","highAdd","lowAdd","highRem","lowRem","effectiveness","best"));
-		int id = 0;
-		for (BiFunction<Integer,Integer,Graph> gen : GENS)
-			for (int instance = 0; instance < INSTANCES_PER_MODEL; ++instance){
-				boolean added = false;
-				while (!added) {
-					Graph g = gen.apply(NETWORK_SIZE, AVERAGE_DEGREE);
-					int evader = Utils.argmax(g.nodesStream().boxed(), i -> g.getDegree(i));
-					Edge h = g.e(evader, g.getNeighs(evader).getRandom());
-					g.removeEdge(h);
-					Ranking<LinkPredictionAlgorithm> rank = algsRank(g, h);	
-					
-					List<Edge> allRem = h.stream().boxed()
-							.flatMap(i -> g.getNeighs(i).stream().mapToObj(j -> g.e(i, j))).collect(Collectors.toList());
-					List<Edge> allAdd = h.stream().boxed()
-							.flatMap(i -> g.getNeighs(i).stream().flatMap(j -> g.getNeighs(j).stream()).distinct()
-									.filter(k -> !h.contains(k) && !g.getNeighs(i).contains(k))
-									.mapToObj(k -> g.e(i, k)))
-							.collect(Collectors.toList());
-					if (allRem.size() < REM_OPTIONS || allAdd.size() < ADD_OPTIONS)
-						continue;
-					
-					Ranking<Edge> remRank = new Ranking<>(allRem, e -> {
-						g.removeEdge(e);
-						Ranking<LinkPredictionAlgorithm> eRank = algsRank(g, h);
-						g.addEdge(e);
-						return eRank.getBestScore();
-					});
-					Ranking<Edge> addRank = new Ranking<>(allAdd, e -> {
-						g.addEdge(e);
-						Ranking<LinkPredictionAlgorithm> eRank = algsRank(g, h);
-						g.removeEdge(e);
-						return eRank.getBestScore();
-					});
-					List<Edge> highRem = remRank.getBottom(REM_OPTIONS / 2);
-					List<Edge> lowRem = remRank.getTop(REM_OPTIONS / 2);
-					List<Edge> highAdd = addRank.getBottom(ADD_OPTIONS / 2);
-					List<Edge> lowAdd = addRank.getTop(ADD_OPTIONS / 2);
-					List<Edge> all = Utils.concat(highAdd, lowAdd, highRem, lowRem);
-					Function<List<Edge>,String> subRep = sub -> sub.stream().map(e -> Integer.toString(all.indexOf(e)))
-							.collect(Collectors.joining(""));
-					
-					Map<List<Edge>, Double> scores = new HashMap<>();
-					for (List<Edge> sub :
-							Utils.sublistsOfSize(Utils.concat(highRem, lowRem, highAdd, lowAdd), HIDING_BUDGET)) {
-						g.startRecordingHistory();
-						for (Edge e : sub)
-							g.swapEdge(e);
-						scores.put(sub, rank.getBestScore() - algsRank(g, h).getBestScore());
-						g.resetGraph();
-					}
-					DecimalFormat df = new DecimalFormat("#.####");
-					if (scores.values().stream().mapToDouble(x -> x).max().getAsDouble() >= MAX_SCORE_REQ
-							&& scores.values().stream().mapToDouble(x -> x).min().getAsDouble() <= MIN_SCORE_REQ
-							&& Utils.sd(scores.values()) >= ST_DEV_REQ) {
-						List<Edge> best = Utils.argmax(scores.keySet(), sub -> scores.get(sub));
-						shieldRes.addRowDontPrint(id, edgeToLetters(h), rank.getBest().getName(), rank.getBestScore(),
-								highAdd.stream().map(e -> edgeToLetters(e)).collect(Collectors.joining(",")),
-								lowAdd.stream().map(e -> edgeToLetters(e)).collect(Collectors.joining(",")),
-								highRem.stream().map(e -> edgeToLetters(e)).collect(Collectors.joining(",")),
-								lowRem.stream().map(e -> edgeToLetters(e)).collect(Collectors.joining(",")),
-								scores.keySet().stream().map(sub -> subRep.apply(sub) + ":" + df.format(scores.get(sub)))
-										.collect(Collectors.joining(",")),
-								subRep.apply(best) + ":" + df.format(scores.get(best)));
-						exportGraph(g, h, SHIELD_OUTPUT_ANET_DIR + id + ".anet");
-						++id;
-						added = true;
-					}
-				}
-				if (id % 10 == 0)
-					System.out.println("Finished " + id + " shield instances.");
+	}
+	
+	private static List<StageStatistics> shieldStats(GenerationParameters p) {
+		return p.getGenerators().stream().map(gen -> new StageStatistics()).collect(Collectors.toList());
+	}
+	
+	private static void printShieldStats(GenerationParameters p, List<StageStatistics> stats) {
+		for (int model = 0; model < stats.size(); ++model)
+			System.out.print("Shield instance stages for model " + model + " in " + p.getOutputPath() + ":\n"
+					+ stats.get(model));
+	}
+	
+	public static void generateAllInstances(boolean resume) {
+		generateAllInstances(DEFAULT_PARAMS, resume);
+	}
+	
+	/**
+	 * Generates eye and shield instances in a single pass. Both are seeded in the same way, so the first graph
+	 * considered for a shield instance is the graph of the eye instance with the same id. Here it is generated
+	 * and ranked only once, and the files are the same as generated by {@link #generateEyeInstances} and
+	 * {@link #generateShieldInstances}.
+	 */
+	public static GenerationReport generateAllInstances(GenerationParameters p, boolean resume) {
+		List<StageStatistics> stats = shieldStats(p);
+		GenerationReport res = generateInstances(p, (gen, id) -> {
+			HiddenEdgeSample s = new HiddenEdgeSample(p, gen);
+			Object[] eyeRow = generateEyeInstance(p, s, id);
+			return Utils.aList(eyeRow, generateShieldInstance(p, stats, gen, id, s));
+		}, "eye and shield", Utils.aList(eyeResult(p), shieldResult(p)),
+				Utils.aList(p.getOutputPath() + EYE_OUTPUT_RES_FILE, p.getOutputPath() + SHIELD_OUTPUT_RES_FILE), resume);
+		printShieldStats(p, stats);
+		return res;
+	}
+	
+	/**
+	 * Generates random graphs until one of them yields a shield instance satisfying all requirements.
+	 * Requirements are checked in stages of increasing cost, starting with necessary conditions:
+	 * enough options to hide the edge before ranking the algorithms, bounds on the effectiveness before evaluating
+	 * moves (the best AUC after hiding is between 0 and 1, so the effectiveness of every subset is at most the best
+	 * AUC before hiding, and at least that AUC minus 1), and some single move changing the AUC of some algorithm
+	 * before enumerating subsets. If given, the first sample is considered before generating new ones.
+	 */
+	private static Object[] generateShieldInstance(GenerationParameters p, List<StageStatistics> stats,
+			BiFunction<Integer,Integer,Graph> gen, int id, HiddenEdgeSample first) {
+		int remOptions = p.getRemOptions();
+		int addOptions = p.getAddOptions();
+		HiddenEdgeSample next = first;
+		while (true) {
+			StageStatistics.Attempt attempt = stats.get(id / p.getInstancesPerModel()).startAttempt();
+			HiddenEdgeSample s = next != null ? next : new HiddenEdgeSample(p, gen);
+			next = null;
+			Graph g = s.g;
+			Edge h = s.h;
+			
+			List<Edge> allRem = h.stream().boxed()
+					.flatMap(i -> g.getNeighs(i).stream().mapToObj(j -> g.e(i, j))).collect(Collectors.toList());
+			List<Edge> allAdd = h.stream().boxed()
+					.flatMap(i -> g.getNeighs(i).stream().flatMap(j -> g.getNeighs(j).stream()).distinct()
+							.filter(k -> !h.contains(k) && !g.getNeighs(i).contains(k))
+							.mapToObj(k -> g.e(i, k)))
+					.collect(Collectors.toList());
+			if (!attempt.pass("options", allRem.size() >= remOptions && allAdd.size() >= addOptions))
+				continue;
+			
+			BestAlgorithm bestAlg = s.getBestAlgorithm(p.getAlgorithms());
+			if (!attempt.pass("ranking",
+					bestAlg.getAUC() >= MAX_SCORE_REQ && bestAlg.getAUC() <= 1 + MIN_SCORE_REQ))
+				continue;
+			
+			HidingEvaluator ev = new HidingEvaluator(g, h, p.getAlgorithms(), p.getMoveWorkers());
+			double[] aucs = ev.getAUCs();
+			double[][] remAUCs = ev.evaluateAUCs(allRem);
+			double[][] addAUCs = ev.evaluateAUCs(allAdd);
+			if (!attempt.pass("moves", changesAny(aucs, remAUCs) || changesAny(aucs, addAUCs)))
+				continue;
+			Ranking<Edge> remRank = movesRank(allRem, remAUCs);
+			Ranking<Edge> addRank = movesRank(allAdd, addAUCs);
+			List<Edge> highRem = remRank.getBottom(remOptions / 2);
+			List<Edge> lowRem = remRank.getTop(remOptions / 2);
+			List<Edge> highAdd = addRank.getBottom(addOptions / 2);
+			List<Edge> lowAdd = addRank.getTop(addOptions / 2);
+			List<Edge> all = Utils.concat(highAdd, lowAdd, highRem, lowRem);
+			Function<List<Edge>,String> subRep = sub -> sub.stream().map(e -> Integer.toString(all.indexOf(e)))
+					.collect(Collectors.joining(""));
+			
+			Map<List<Edge>, Double> scores = new HashMap<>();
+			ev.evaluateSubsets(Utils.concat(highRem, lowRem, highAdd, lowAdd), p.getHidingBudget())
+					.forEach((sub, auc) -> scores.put(sub, bestAlg.getAUC() - auc));
+			attempt.mark("subsets");
+			if (!attempt.pass("maxScore",
+					scores.values().stream().mapToDouble(x -> x).max().getAsDouble() >= MAX_SCORE_REQ))
+				continue;
+			if (!attempt.pass("minScore",
+					scores.values().stream().mapToDouble(x -> x).min().getAsDouble() <= MIN_SCORE_REQ))
+				continue;
+			if (attempt.pass("stDev", Utils.sd(scores.values()) >= ST_DEV_REQ)) {
+				DecimalFormat df = new DecimalFormat("#.####");
+				List<Edge> best = Utils.argmax(scores.keySet(), sub -> scores.get(sub));
+				exportGraph(g, h, p.getOutputPath() + SHIELD_OUTPUT_ANET_DIR + id + ".anet");
+				return new Object[] {id, edgeToLetters(h), bestAlg.getAlgorithm().getName(), bestAlg.getAUC(),
+						highAdd.stream().map(e -> edgeToLetters(e)).collect(Collectors.joining(",")),
+						lowAdd.stream().map(e -> edgeToLetters(e)).collect(Collectors.joining(",")),
+						highRem.stream().map(e -> edgeToLetters(e)).collect(Collectors.joining(",")),
+						lowRem.stream().map(e -> edgeToLetters(e)).collect(Collectors.joining(",")),
+						scores.keySet().stream().map(sub -> subRep.apply(sub) + ":" + df.format(scores.get(sub)))
+								.collect(Collectors.joining(",")),
+						subRep.apply(best) + ":" + df.format(scores.get(best))};
 			}
-		shieldRes.saveResult(SHIELD_OUTPUT_RES_FILE);
+		}
 	}
 	
-	public static void printEyeInstances() {
-		ExperimentResult res = ExperimentResult.loadResult(EYE_OUTPUT_RES_FILE);
-		for (Row r : res) {
-			Graph g = GraphImporter.importGraph(new ANETFile(EYE_OUTPUT_ANET_DIR + r.get("id") + ".anet"), null);
-			VisualParameters vp = visualParams(g);
-			g.nodesStream().forEach(i -> vp.setNodeLabel(i, nodeToLetter(i)));
-			GraphVisualizer.exportGraphToPNG(g, EYE_OUTPUT_IMAGE_DIR + r.get("id") + ".png", vp);
+	/**
+	 * Whether AUCs of some algorithm after some move differ from the current ones by more than noise.
+	 */
+	private static boolean changesAny(double[] aucs, double[][] moveAUCs) {
+		for (double[] after : moveAUCs)
+			for (int a = 0; a < aucs.length; ++a)
+				if (Math.abs(after[a] - aucs[a]) > MOVE_NOISE)
+					return true;
+		return false;
+	}
+	
+	/**
+	 * Ranks moves by the best AUC among all algorithms after making them, given the AUCs of every algorithm.
+	 */
+	private static Ranking<Edge> movesRank(List<Edge> moves, double[][] aucs) {
+		Map<Edge, Double> best = new HashMap<>();
+		for (int k = 0; k < moves.size(); ++k)
+			best.put(moves.get(k), Arrays.stream(aucs[k]).max().getAsDouble());
+		return new Ranking<>(moves, e -> best.get(e));
+	}
+	
+	/**
+	 * Generates instancesPerModel instances for every model on a pool of workers, every instance yielding one row
+	 * for each of the results. Every instance is generated with {@link Utils#RAND} seeded from its model and index,
+	 * so rows, streamed to the files in the order of ids and flushed in batches, do not depend on the number of
+	 * workers. Every file always holds a prefix of its rows, and in resume mode instances with ids already present
+	 * in all files are skipped, which does not affect the other instances.
+	 */
+	private static GenerationReport generateInstances(GenerationParameters p,
+			BiFunction<BiFunction<Integer,Integer,Graph>,Integer,List<Object[]>> f, String name,
+			List<ExperimentResult> results, List<String> filePaths, boolean resume) {
+		long start = System.nanoTime();
+		List<Set<Integer>> completedIn = new ArrayList<>();
+		for (int r = 0; r < results.size(); ++r)
+			completedIn.add(results.get(r).startSaving(filePaths.get(r), resume, FLUSH_EVERY).stream()
+					.map(row -> row.getInt("id")).collect(Collectors.toSet()));
+		Set<Integer> completed = completedIn.stream().reduce((s1, s2) -> s1.stream().filter(s2::contains)
+				.collect(Collectors.toSet())).get();
+		if (!completed.isEmpty())
+			System.out.println("Resuming with " + completed.size() + " " + name + " instances.");
+		ExecutorService pool = Executors.newFixedThreadPool(p.getWorkers());
+		LongAdder allocated = new LongAdder();
+		Map<Integer, Future<List<Object[]>>> futures = new LinkedHashMap<>();
+		for (int model = 0; model < p.getGenerators().size(); ++model)
+			for (int instance = 0; instance < p.getInstancesPerModel(); ++instance) {
+				BiFunction<Integer,Integer,Graph> gen = p.getGenerators().get(model);
+				int id = model * p.getInstancesPerModel() + instance;
+				long seed = instanceSeed(model, instance);
+				if (!completed.contains(id))
+					futures.put(id, pool.submit(() -> {
+						long before = Utils.getThreadAllocatedBytes();
+						Utils.RAND.setSeed(seed);
+						List<Object[]> rows = f.apply(gen, id);
+						allocated.add(before < 0 ? 0 : Utils.getThreadAllocatedBytes() - before);
+						return rows;
+					}));
+			}
+		int finished = completed.size();
+		try {
+			for (Map.Entry<Integer, Future<List<Object[]>>> future : futures.entrySet()) {
+				List<Object[]> rows = future.getValue().get();
+				for (int r = 0; r < results.size(); ++r)
+					if (!completedIn.get(r).contains(future.getKey()))
+						results.get(r).addRowDontPrint(rows.get(r));
+				if (++finished % 10 == 0)
+					System.out.println("Finished " + finished + " " + name + " instances.");
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			pool.shutdownNow();
+			if (e instanceof InterruptedException)
+				Thread.currentThread().interrupt();
+			throw new RuntimeException("Error when generating " + name + " instances.", e);
+		} finally {
+			pool.shutdown();
+			// rows saved so far form a prefix that can be resumed
+			results.forEach(res -> res.stopSaving());
 		}
+		return new GenerationReport(finished - completed.size(), (System.nanoTime() - start) / 1e9,
+				Utils.getThreadAllocatedBytes() < 0 ? -1 : allocated.sum());
+	}
+	
+	private static long instanceSeed(int model, int instance) {
+		return new SplittableRandom(REPEATABLE_SEED ^ ((long)model << 32 | instance)).nextLong();
+	}
+	
+	public static void printEyeInstances() {
+		printEyeInstances(DEFAULT_PARAMS);
+	}
+	
+	public static void printEyeInstances(GenerationParameters p) {
+		ExperimentResult res = ExperimentResult.loadResult(p.getOutputPath() + EYE_OUTPUT_RES_FILE);
+		BatchGraphRenderer renderer = new BatchGraphRenderer();
+		for (Row r : res)
+			renderer.exportGraphToPNG(
+					() -> GraphImporter.importGraph(
+							new ANETFile(p.getOutputPath() + EYE_OUTPUT_ANET_DIR + r.get("id") + ".anet"), null),
+					g -> visualParams(g),
+					p.getOutputPath() + EYE_OUTPUT_IMAGE_DIR + r.get("id") + ".png");
+		checkRendered(renderer, p.getOutputPath() + EYE_OUTPUT_IMAGE_DIR);
 	}
 	
 	private static Color HIDDEN_COLOR = new Color(244, 195, 56);
@@ -194,24 +370,45 @@ public class GenerateLinkPredictionInstances {
 	private static Stroke REM_STROKE = new BasicStroke(7);
 	
 	public static void printShieldInstances() {
-		ExperimentResult res = ExperimentResult.loadResult(SHIELD_OUTPUT_RES_FILE);
-		for (Row r : res) {
-			Graph g = GraphImporter.importGraph(new ANETFile(SHIELD_OUTPUT_ANET_DIR + r.get("id") + ".anet"), null);
-			Edge h = lettersToEdge(r.get("correct"), g);
-			g.addEdge(h);
-			List<Edge> adds = Arrays.stream((r.get("highAdd") + "," + r.get("lowAdd")).split(","))
-					.map(es -> lettersToEdge(es, g)).collect(Collectors.toList());
-			adds.forEach(e -> g.addEdge(e));
-			List<Edge> rems = Arrays.stream((r.get("highRem") + "," + r.get("lowRem")).split(","))
-					.map(es -> lettersToEdge(es, g)).collect(Collectors.toList());
-			VisualParameters vp = visualParams(g);
-			g.nodesStream().forEach(i -> vp.setNodeLabel(i, nodeToLetter(i)));
-			vp.setEdgeOrder(e -> e.equals(h) || adds.contains(e) || rems.contains(e) ? 1. : 0.);
-			vp.setEdgeColor(h, HIDDEN_COLOR).setEdgeStroke(h, HIDDEN_STROKE);
-			adds.forEach(e -> vp.setEdgeColor(e, ADD_COLOR).setEdgeStroke(e, ADD_STROKE));
-			rems.forEach(e -> vp.setEdgeColor(e, REM_COLOR).setEdgeStroke(e, REM_STROKE));
-			GraphVisualizer.exportGraphToPNG(g, SHIELD_OUTPUT_IMAGE_DIR + r.get("id") + ".png", vp);
-		}
+		printShieldInstances(DEFAULT_PARAMS);
+	}
+	
+	public static void printShieldInstances(GenerationParameters p) {
+		ExperimentResult res = ExperimentResult.loadResult(p.getOutputPath() + SHIELD_OUTPUT_RES_FILE);
+		BatchGraphRenderer renderer = new BatchGraphRenderer();
+		for (Row r : res)
+			renderer.exportGraphToPNG(() -> {
+				Graph g = GraphImporter.importGraph(
+						new ANETFile(p.getOutputPath() + SHIELD_OUTPUT_ANET_DIR + r.get("id") + ".anet"), null);
+				g.addEdge(lettersToEdge(r.get("correct"), g));
+				shieldEdges(r, g, "highAdd", "lowAdd").forEach(e -> g.addEdge(e));
+				return g;
+			}, g -> {
+				Edge h = lettersToEdge(r.get("correct"), g);
+				List<Edge> adds = shieldEdges(r, g, "highAdd", "lowAdd");
+				List<Edge> rems = shieldEdges(r, g, "highRem", "lowRem");
+				VisualParameters vp = visualParams(g);
+				vp.setEdgeOrder(e -> e.equals(h) || adds.contains(e) || rems.contains(e) ? 1. : 0.);
+				vp.setEdgeColor(h, HIDDEN_COLOR).setEdgeStroke(h, HIDDEN_STROKE);
+				adds.forEach(e -> vp.setEdgeColor(e, ADD_COLOR).setEdgeStroke(e, ADD_STROKE));
+				rems.forEach(e -> vp.setEdgeColor(e, REM_COLOR).setEdgeStroke(e, REM_STROKE));
+				return vp;
+			}, p.getOutputPath() + SHIELD_OUTPUT_IMAGE_DIR + r.get("id") + ".png");
+		checkRendered(renderer, p.getOutputPath() + SHIELD_OUTPUT_IMAGE_DIR);
+	}
+	
+	/**
+	 * Waits for all images of the renderer, failing if any of them could not be rendered or written.
+	 */
+	private static void checkRendered(BatchGraphRenderer renderer, String imageDir) {
+		int failed = renderer.finish();
+		if (failed > 0)
+			throw new IllegalStateException(failed + " images in " + imageDir + " failed to render.");
+	}
+	
+	private static List<Edge> shieldEdges(Row r, Graph g, String highCol, String lowCol) {
+		return Arrays.stream((r.get(highCol) + "," + r.get(lowCol)).split(","))
+				.map(es -> lettersToEdge(es, g)).collect(Collectors.toList());
 	}
 	
 	private static String nodeToLetter(int i) {
@@ -226,19 +423,82 @@ public class GenerateLinkPredictionInstances {
 		return g.e(s.charAt(0) - 'A', s.charAt(1) - 'A');
 	}
 	
-	private static Ranking<LinkPredictionAlgorithm> algsRank(Graph g, Edge h) {
-		Set<Edge> probeSet = new HashSet<>();
-		probeSet.add(h);
-		return new Ranking<>(ALGS, alg -> AreaUnderROCCurve.computeAUC(g, probeSet, alg));
+	/**
+	 * Finds the algorithm with the highest AUC of the hidden edge, with ties resolved by the order of algorithms.
+	 * Algorithms that cannot beat the best one so far are only bounded from above. Results are memoised by
+	 * the fingerprint of the graph and, being immutable, shared between threads.
+	 */
+	private static BestAlgorithm bestAlgorithm(Graph g, Edge h, List<LinkPredictionAlgorithm> algs) {
+		return BEST_ALGS.get(new EvaluationCache.Context(Collections.singleton(h), algs), g, () -> {
+			List<Edge> targets = Utils.aList(h);
+			LinkPredictionAlgorithm bestAlg = null;
+			double best = Double.NEGATIVE_INFINITY;
+			for (LinkPredictionAlgorithm alg : algs) {
+				double auc = AreaUnderROCCurve.computeTargetRanks(g, targets, alg, best).getAUC();
+				if (auc > best) {
+					bestAlg = alg;
+					best = auc;
+				}
+			}
+			return new BestAlgorithm(bestAlg, best);
+		});
 	}
 	
 	private static VisualParameters visualParams(Graph g) {
-		return new VisualParameters(new CircleNodeLayout(g, 800, 800))
+		VisualParameters vp = new VisualParameters(new CircleNodeLayout(g, 800, 800))
 				.setDefaultDrawNodeLabel(true).setDefaultNodeLabelColor(Color.WHITE)
 				.setDefaultNodeFillColor(Color.BLACK).setDefaultNodeBorderStroke(new BasicStroke(0));
+		g.nodesStream().forEach(i -> vp.setNodeLabel(i, nodeToLetter(i)));
+		return vp;
 	}
 	
 	private static void exportGraph(Graph g, Edge h, String path) {
-		GraphExporter.exportToANET(g, path, Utils.aList("hidden", h.i().toString(), h.j().toString()));
+		GraphExporter.exportToANETAtomically(g, path, Utils.aList("hidden", h.i().toString(), h.j().toString()));
+	}
+	
+	/**
+	 * Algorithm with the highest AUC of a hidden edge, together with that AUC.
+	 */
+	private static class BestAlgorithm {
+		
+		private final LinkPredictionAlgorithm alg;
+		private final double auc;
+		
+		public BestAlgorithm(LinkPredictionAlgorithm alg, double auc) {
+			this.alg = alg;
+			this.auc = auc;
+		}
+		
+		public LinkPredictionAlgorithm getAlgorithm() {
+			return alg;
+		}
+		
+		public double getAUC() {
+			return auc;
+		}
+	}
+	
+	/**
+	 * Random graph with an edge of its node of the highest degree hidden, evaluated by the algorithms at most once.
+	 */
+	private static class HiddenEdgeSample {
+		
+		private Graph g;
+		private Edge h;
+		private BestAlgorithm bestAlg;
+		
+		public HiddenEdgeSample(GenerationParameters p, BiFunction<Integer,Integer,Graph> gen) {
+			this.g = gen.apply(p.getNetworkSize(), p.getAverageDegree());
+			int evader = Utils.argmax(g.nodesStream().boxed(), i -> g.getDegree(i));
+			this.h = g.e(evader, g.getNeighs(evader).getRandom());
+			g.removeEdge(h);
+			this.bestAlg = null;
+		}
+		
+		public BestAlgorithm getBestAlgorithm(List<LinkPredictionAlgorithm> algs) {
+			if (bestAlg == null)
+				bestAlg = bestAlgorithm(g, h, algs);
+			return bestAlg;
+		}
 	}
 }
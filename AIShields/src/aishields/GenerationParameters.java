@@ -0,0 +1,166 @@
+package aishields;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+import aishields.core.Graph;
+import aishields.linkprediction.algorithms.LinkPredictionAlgorithm;
+
+/**
+ * Parameters of generating link prediction survey instances.
+ *
+ * @author Marcin Waniek
+ */
+public class GenerationParameters {
+
+	/**
+	 * Nodes are named with single letters in the results and pictures of instances.
+	 */
+	public static final int MAX_NETWORK_SIZE = 26;
+
+	private String outputPath;
+	private List<BiFunction<Integer,Integer,Graph>> gens;
+	private List<LinkPredictionAlgorithm> algs;
+	private int instancesPerModel;
+	private int networkSize;
+	private int averageDegree;
+	private int remOptions;
+	private int addOptions;
+	private int hidingBudget;
+	private int workers;
+	private int moveWorkers;
+
+	public GenerationParameters(String outputPath, List<BiFunction<Integer,Integer,Graph>> gens,
+			List<LinkPredictionAlgorithm> algs) {
+		this.outputPath = outputPath;
+		this.gens = gens;
+		this.algs = algs;
+		this.instancesPerModel = 1;
+		this.networkSize = 15;
+		this.averageDegree = 4;
+		this.remOptions = 4;
+		this.addOptions = 4;
+		this.hidingBudget = 3;
+		this.workers = Runtime.getRuntime().availableProcessors();
+		this.moveWorkers = 1;
+	}
+
+	public GenerationParameters(GenerationParameters p) {
+		this.outputPath = p.outputPath;
+		this.gens = p.gens;
+		this.algs = p.algs;
+		this.instancesPerModel = p.instancesPerModel;
+		this.networkSize = p.networkSize;
+		this.averageDegree = p.averageDegree;
+		this.remOptions = p.remOptions;
+		this.addOptions = p.addOptions;
+		this.hidingBudget = p.hidingBudget;
+		this.workers = p.workers;
+		this.moveWorkers = p.moveWorkers;
+	}
+
+	public String getOutputPath() {
+		return outputPath;
+	}
+
+	public GenerationParameters setOutputPath(String outputPath) {
+		this.outputPath = outputPath;
+		return this;
+	}
+
+	public List<BiFunction<Integer,Integer,Graph>> getGenerators() {
+		return gens;
+	}
+
+	public GenerationParameters setGenerators(List<BiFunction<Integer,Integer,Graph>> gens) {
+		this.gens = gens;
+		return this;
+	}
+
+	public List<LinkPredictionAlgorithm> getAlgorithms() {
+		return algs;
+	}
+
+	public GenerationParameters setAlgorithms(List<LinkPredictionAlgorithm> algs) {
+		this.algs = algs;
+		return this;
+	}
+
+	public int getInstancesPerModel() {
+		return instancesPerModel;
+	}
+
+	public GenerationParameters setInstancesPerModel(int instancesPerModel) {
+		this.instancesPerModel = instancesPerModel;
+		return this;
+	}
+
+	public int getNetworkSize() {
+		return networkSize;
+	}
+
+	public GenerationParameters setNetworkSize(int networkSize) {
+		if (networkSize > MAX_NETWORK_SIZE)
+			throw new IllegalArgumentException("Network size " + networkSize + " exceeds " + MAX_NETWORK_SIZE
+					+ ", the number of letters naming nodes.");
+		this.networkSize = networkSize;
+		return this;
+	}
+
+	public int getAverageDegree() {
+		return averageDegree;
+	}
+
+	public GenerationParameters setAverageDegree(int averageDegree) {
+		this.averageDegree = averageDegree;
+		return this;
+	}
+
+	public int getRemOptions() {
+		return remOptions;
+	}
+
+	public GenerationParameters setRemOptions(int remOptions) {
+		this.remOptions = remOptions;
+		return this;
+	}
+
+	public int getAddOptions() {
+		return addOptions;
+	}
+
+	public GenerationParameters setAddOptions(int addOptions) {
+		this.addOptions = addOptions;
+		return this;
+	}
+
+	public int getHidingBudget() {
+		return hidingBudget;
+	}
+
+	public GenerationParameters setHidingBudget(int hidingBudget) {
+		this.hidingBudget = hidingBudget;
+		return this;
+	}
+
+	public int getWorkers() {
+		return workers;
+	}
+
+	public GenerationParameters setWorkers(int workers) {
+		this.workers = workers;
+		return this;
+	}
+
+	/**
+	 * Number of workers evaluating candidate moves within a single instance, each on its own copy of the graph.
+	 */
+	public int getMoveWorkers() {
+		return moveWorkers;
+	}
+
+	public GenerationParameters setMoveWorkers(int moveWorkers) {
+		this.moveWorkers = moveWorkers;
+		return this;
+	}
+}
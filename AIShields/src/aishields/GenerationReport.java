@@ -0,0 +1,59 @@
+package aishields;
+
+/**
+ * Summary of a run of instance generation: number of generated instances, wall-clock time and memory allocated
+ * by the threads generating instances.
+ *
+ * @author Marcin Waniek
+ */
+public class GenerationReport {
+
+	private int instances;
+	private double seconds;
+	private long allocatedBytes;
+
+	public GenerationReport(int instances, double seconds, long allocatedBytes) {
+		this.instances = instances;
+		this.seconds = seconds;
+		this.allocatedBytes = allocatedBytes;
+	}
+
+	public GenerationReport() {
+		this(0, 0., 0);
+	}
+
+	public int getInstances() {
+		return instances;
+	}
+
+	public double getSeconds() {
+		return seconds;
+	}
+
+	/**
+	 * Bytes allocated by the threads generating instances, or a negative number if not supported by the JVM.
+	 * Work handed off by these threads to other ones, e.g., parallel evaluation of moves on the common fork/join
+	 * pool, is not included.
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	public double getThroughput() {
+		return seconds > 0. ? instances / seconds : 0.;
+	}
+
+	/**
+	 * Report of this run together with the other one. Instances and allocated bytes are summed, while the time is
+	 * that of this report, as the runs may overlap; their total wall-clock time can be set with
+	 * {@link #withSeconds}.
+	 */
+	public GenerationReport add(GenerationReport r) {
+		return new GenerationReport(instances + r.instances, seconds,
+				allocatedBytes < 0 || r.allocatedBytes < 0 ? -1 : allocatedBytes + r.allocatedBytes);
+	}
+
+	public GenerationReport withSeconds(double seconds) {
+		return new GenerationReport(instances, seconds, allocatedBytes);
+	}
+}
@@ -53,6 +53,19 @@ public class Edge implements Iterable<Integer>, Comparable<Edge> {
 	public Edge getReversed() {
 		return new Edge(second, first, directed);
 	}
+	
+	/**
+	 * Primitive key identifying the edge, equal for edges that are equal.
+	 */
+	public long key() {
+		return key(first, second, directed);
+	}
+	
+	public static long key(int i, int j, boolean directed) {
+		int a = directed ? i : Math.min(i, j);
+		int b = directed ? j : Math.max(i, j);
+		return ((long)a << 32) | b;
+	}
 
 	@Override
 	public String toString() {
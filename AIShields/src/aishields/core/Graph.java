@@ -5,8 +5,10 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Stack;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 import java.util.function.IntPredicate;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -25,6 +27,8 @@ public class Graph {
 	private int n;
 	private int m;
 	private boolean directed;
+	private long version;
+	private long fingerprint;
 	
 	private ArrayList<Coalition> succs;
 	private ArrayList<Coalition> preds;
@@ -37,6 +41,8 @@ public class Graph {
 		this.n = n;
 		this.m = 0;
 		this.directed = directed;
+		this.version = 0;
+		this.fingerprint = 0;
 		
 		this.succs = null;
 		if (genSuccs) {
@@ -52,7 +58,7 @@ public class Graph {
 		}
 
 		this.history = null;
-		this.listeners = new ArrayList<>();
+		this.listeners = new CopyOnWriteArrayList<>();
 	}
 	
 	public Graph(String name, int n, boolean directed){
@@ -126,6 +132,35 @@ public class Graph {
 		return directed;
 	}
 	
+	/**
+	 * Number of structural changes performed on the graph so far (including reverting changes).
+	 */
+	public long getVersion(){
+		return version;
+	}
+	
+	/**
+	 * Zobrist hash of the set of edges, i.e., XOR of random hashes of all edges, maintained in constant time
+	 * per change. Graphs with equal sets of edges have equal fingerprints, regardless of the order of changes.
+	 */
+	public long getFingerprint(){
+		return fingerprint;
+	}
+	
+	/**
+	 * Fingerprint the graph would have after swapping the edge (i, j).
+	 */
+	public long getFingerprintAfterSwap(int i, int j){
+		return fingerprint ^ edgeHash(i, j);
+	}
+	
+	private long edgeHash(int i, int j){
+		long z = Edge.key(i, j, isDirected()) + (isDirected() ? 0x632BE59BD9B4E019L : 0x9E3779B97F4A7C15L);
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+	
 	public Edge e(int i, int j) {
 		return new Edge(i, j, isDirected());
 	}
@@ -178,6 +213,8 @@ public class Graph {
 		else
 			succs.get(j).add(i);
 		++m;
+		++version;
+		fingerprint ^= edgeHash(i, j);
 	}
 	
 	protected void performRemoveEdge(int i, int j){
@@ -187,6 +224,8 @@ public class Graph {
 		else
 			succs.get(j).remove(i);
 		--m;
+		++version;
+		fingerprint ^= edgeHash(i, j);
 	}
 	
 	public void disconnectNode(int i) {
@@ -354,6 +393,35 @@ public class Graph {
 		return StreamSupport.stream(nonEdges().spliterator(), false);
 	}
 	
+	/**
+	 * Iterates over all non-edges (i, j) such that i and j have a common neighbour, i.e., the only non-edges
+	 * that can get a non-zero score from local link prediction algorithms. Takes O(sum of squared degrees) time.
+	 */
+	public void forEachTwoHopNonEdge(PairConsumer c){
+		int[] stamp = new int[size()];
+		for (int i = 0; i < size(); ++i) {
+			int fi = i;
+			forEachNeigh(i, k -> forEachNeigh(k, j -> {
+				if (j != fi && stamp[j] != fi + 1 && (isDirected() || fi < j) && !containsEdge(fi, j)) {
+					stamp[j] = fi + 1;
+					c.accept(fi, j);
+				}
+			}));
+		}
+	}
+	
+	public long twoHopNonEdgesCount(){
+		long[] res = new long[1];
+		forEachTwoHopNonEdge((i, j) -> ++res[0]);
+		return res[0];
+	}
+	
+	private void forEachNeigh(int i, IntConsumer c){
+		getSuccs(i).forEach(j -> c.accept(j));
+		if (isDirected())
+			getPreds(i).forEach(j -> c.accept(j));
+	}
+	
 	public Edge getRandomNonEdge(){
 		long r;
 		if (isDirected())
@@ -0,0 +1,12 @@
+package aishields.core;
+
+/**
+ * Operation accepting a pair of nodes, used to iterate over pairs without creating Edge objects.
+ * 
+ * @author Marcin Waniek
+ */
+@FunctionalInterface
+public interface PairConsumer {
+
+	public void accept(int i, int j);
+}
@@ -0,0 +1,143 @@
+package aishields.core;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import aishields.utils.RunningStatistics;
+
+/**
+ * Monte Carlo method whose iterations are independent samples, run in parallel by a fixed number of workers.
+ * Every worker draws from its own random stream split from the seed and keeps its own statistics, and statistics
+ * of workers are merged in a fixed order after every portion, so results only depend on the seed and the number
+ * of workers, both in sequential and in parallel mode.
+ * 
+ * The process stops once the standard error of the mean and the half-width of its 95% confidence interval reach
+ * their targets. Portions grow with the estimated number of missing iterations, at most doubling the number of
+ * iterations at once.
+ * 
+ * @author Marcin Waniek
+ */
+public abstract class ParallelMonteCarloAlgorithm extends MonteCarloAlgorithm {
+	
+	public static final int DEFAULT_WORKERS = 8;
+	
+	private long seed;
+	private int workers;
+	private SplittableRandom[] rands;
+	private RunningStatistics stats;
+	
+	public ParallelMonteCarloAlgorithm(long seed, int workers) {
+		this.seed = seed;
+		this.workers = workers;
+		this.stats = new RunningStatistics();
+	}
+	
+	public ParallelMonteCarloAlgorithm(long seed) {
+		this(seed, DEFAULT_WORKERS);
+	}
+	
+	/**
+	 * Value of a single independent sample, using only the given source of randomness.
+	 */
+	protected abstract double sample(SplittableRandom rand);
+	
+	public int getWorkers() {
+		return workers;
+	}
+	
+	public double getTargetStandardError() {
+		return 0.001;
+	}
+	
+	public double getTargetConf95() {
+		return Double.POSITIVE_INFINITY;
+	}
+	
+	/**
+	 * Number of iterations performed by the last run.
+	 */
+	public long getIterations() {
+		return stats.size();
+	}
+	
+	/**
+	 * Standard error of the result of the last run.
+	 */
+	public double getStandardError() {
+		return stats.getStandardError();
+	}
+	
+	/**
+	 * Half-width of the 95% confidence interval of the result of the last run.
+	 */
+	public double getConf95() {
+		return stats.getConf95();
+	}
+	
+	/**
+	 * Subclasses overriding this method have to call it.
+	 */
+	@Override
+	protected void preProcess() {
+		SplittableRandom root = new SplittableRandom(seed);
+		rands = new SplittableRandom[workers];
+		for (int w = 0; w < workers; ++w)
+			rands[w] = root.split();
+		stats.reset();
+	}
+	
+	@Override
+	protected void singleMCIteration() {
+		stats.addValue(sample(rands[0]));
+	}
+	
+	@Override
+	protected double getControlSum(int iter) {
+		return stats.getMean();
+	}
+	
+	@Override
+	public Double runProcess() {
+		return runAdaptive(false);
+	}
+	
+	@Override
+	public Double runParallelProcess() {
+		return runAdaptive(true);
+	}
+	
+	private Double runAdaptive(boolean parallel) {
+		preProcess();
+		int portion = getPortion();
+		while (stats.size() < getMaxIterations()) {
+			runPortion(portion, parallel);
+			if (stats.size() >= getMinIterations() && stats.getStandardError() <= getTargetStandardError()
+					&& stats.getConf95() <= getTargetConf95())
+				break;
+			portion = (int)Math.min(getMaxIterations() - stats.size(),
+					Math.max(getPortion(), Math.min(stats.size(), getMissingIterations())));
+		}
+		postProcess();
+		return stats.getMean();
+	}
+	
+	/**
+	 * Estimated number of iterations still needed to reach target errors.
+	 */
+	private long getMissingIterations() {
+		double error = Math.min(getTargetStandardError(), getTargetConf95() / RunningStatistics.CONF95_Z);
+		return (long)Math.ceil(stats.getVariance() / (error * error)) - stats.size();
+	}
+	
+	private void runPortion(int portion, boolean parallel) {
+		RunningStatistics[] partial = new RunningStatistics[workers];
+		IntStream ws = IntStream.range(0, workers);
+		(parallel ? ws.parallel() : ws).forEach(w -> {
+			partial[w] = new RunningStatistics();
+			for (long i = (long)portion * w / workers; i < (long)portion * (w + 1) / workers; ++i)
+				partial[w].addValue(sample(rands[w]));
+		});
+		for (RunningStatistics s : partial)
+			stats.merge(s);
+	}
+}
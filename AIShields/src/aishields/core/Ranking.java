@@ -1,6 +1,7 @@
 package aishields.core;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -21,6 +22,10 @@ public class Ranking<T> implements Iterable<T> {
 	
 	protected Map<T, Double> scores;
 	protected List<T> ranking;
+	private Map<T, Integer> positions;
+	private double[] sortedScores;
+	private int[] blockTops;
+	private int[] blockBots;
 
 	public Ranking(){
 		this.scores = new HashMap<T, Double>();
@@ -37,13 +42,29 @@ public class Ranking<T> implements Iterable<T> {
 		elements.forEach(t -> setScore(t, f.apply(t).doubleValue()));
 	}
 	
+	/**
+	 * Creates ranking of elements with given scores, sorted once. Elements with equal scores keep their order.
+	 */
+	public Ranking(List<T> elements, double[] scores){
+		this.scores = new HashMap<T, Double>(2 * elements.size());
+		Integer[] order = new Integer[elements.size()];
+		for (int i = 0; i < order.length; ++i) {
+			this.scores.put(elements.get(i), scores[i]);
+			order[i] = i;
+		}
+		Arrays.sort(order, (i1,i2) -> Double.compare(scores[i2], scores[i1]));
+		this.ranking = new ArrayList<>(order.length);
+		for (int i : order)
+			this.ranking.add(elements.get(i));
+	}
+	
 	public double getScore(T v){
 		return scores.get(v);
 	}
 	
 	public void setScore(T v, double score){
 		scores.put(v, score);
-		ranking = null;
+		invalidate();
 	}
 
 	public void incScore(T v, double increment) {
@@ -53,13 +74,22 @@ public class Ranking<T> implements Iterable<T> {
 	
 	public void remove(T v){
 		scores.remove(v);
+		invalidate();
+	}
+	
+	private void invalidate(){
 		ranking = null;
+		positions = null;
 	}
 	
 	public int size(){
 		return scores.size();
 	}
 	
+	public boolean contains(T v){
+		return scores.containsKey(v);
+	}
+	
 	public Set<T> getKeySet(){
 		return new HashSet<>(scores.keySet());
 	}
@@ -81,15 +111,12 @@ public class Ranking<T> implements Iterable<T> {
 	}
 	
 	public T get(int i){
-		if (ranking == null)
-			ranking = createRanking();
-		return ranking.get(i - 1);
+		return getRanking().get(i - 1);
 	}
 	
 	public Integer getPosition(T v){
-		if (ranking == null)
-			ranking = createRanking();
-		return ranking.indexOf(v) + 1;
+		Integer pos = getPositions().get(v);
+		return pos == null ? 0 : pos + 1;
 	}
 	
 	public Integer getExAequoPosition(T v, double delta){
@@ -103,45 +130,108 @@ public class Ranking<T> implements Iterable<T> {
 	/**
 	 * Get highest position with almost the same score as v.
 	 */
-	private int getTopBlockPosition(T v, double delta) {
-		int top = getPosition(v);
-		while (top > 1 && Math.abs(scores.get(v) - scores.get(get(top - 1))) <= delta)
-			--top;
-		return top;
+	protected int getTopBlockPosition(T v, double delta) {
+		if (delta == 0.) {
+			Integer pos = getPositions().get(v);
+			if (pos != null)
+				return blockTops[pos];
+		}
+		return 1 + countAbove(scores.get(v) + delta);
 	}
 	
 	/**
 	 * Get lowest position with almost the same score as v.
 	 */
-	private int getBotBlockPosition(T v, double delta) {
-		int bot = getPosition(v);
-		while (bot < size() && Math.abs(scores.get(v) - scores.get(get(bot + 1))) <= delta)
-			++bot;
-		return bot;
+	protected int getBotBlockPosition(T v, double delta) {
+		if (delta == 0.) {
+			Integer pos = getPositions().get(v);
+			if (pos != null)
+				return blockBots[pos];
+		}
+		return countAtLeast(scores.get(v) - delta);
+	}
+	
+	/**
+	 * Number of elements with score greater than s.
+	 */
+	protected int countAbove(double s) {
+		getPositions();
+		int l = 0;
+		int h = sortedScores.length;
+		while (l < h) {
+			int m = (l + h) >>> 1;
+			if (sortedScores[m] > s)
+				l = m + 1;
+			else
+				h = m;
+		}
+		return l;
+	}
+	
+	/**
+	 * Number of elements with score at least s.
+	 */
+	protected int countAtLeast(double s) {
+		getPositions();
+		int l = 0;
+		int h = sortedScores.length;
+		while (l < h) {
+			int m = (l + h) >>> 1;
+			if (sortedScores[m] >= s)
+				l = m + 1;
+			else
+				h = m;
+		}
+		return l;
+	}
+	
+	/**
+	 * Index of positions of elements in the sorted list, together with boundaries of blocks of equal scores,
+	 * built once per sorting.
+	 */
+	private Map<T, Integer> getPositions() {
+		if (positions == null) {
+			List<T> r = getRanking();
+			Map<T, Integer> pos = new HashMap<>(2 * r.size());
+			sortedScores = new double[r.size()];
+			blockTops = new int[r.size()];
+			blockBots = new int[r.size()];
+			for (int i = 0; i < r.size(); ++i) {
+				pos.put(r.get(i), i);
+				sortedScores[i] = scores.get(r.get(i));
+				blockTops[i] = i > 0 && sortedScores[i] == sortedScores[i - 1] ? blockTops[i - 1] : i + 1;
+			}
+			for (int i = r.size() - 1; i >= 0; --i)
+				blockBots[i] = i < r.size() - 1 && sortedScores[i] == sortedScores[i + 1] ? blockBots[i + 1] : i + 1;
+			positions = pos;
+		}
+		return positions;
 	}
 
 	public List<T> getList() {
-		if (ranking == null)
-			ranking = createRanking();
-		return new ArrayList<>(ranking);
+		return new ArrayList<>(getRanking());
 	}
 	
 	public List<T> getTop(int k) {
-		if (ranking == null)
-			ranking = createRanking();
-		return new ArrayList<>(ranking.subList(0, k));
+		return new ArrayList<>(getRanking().subList(0, k));
 	}
 	
 	public List<T> getBottom(int k) {
-		if (ranking == null)
-			ranking = createRanking();
-		return new ArrayList<>(ranking.subList(ranking.size() - k, ranking.size()));
+		List<T> r = getRanking();
+		return new ArrayList<>(r.subList(r.size() - k, r.size()));
 	}
 	
 	public Stream<T> stream() {
+		return getRanking().stream();
+	}
+
+	/**
+	 * Sorted list of elements, created lazily.
+	 */
+	protected List<T> getRanking(){
 		if (ranking == null)
 			ranking = createRanking();
-		return ranking.stream();
+		return ranking;
 	}
 
 	private List<T> createRanking(){
@@ -155,18 +245,14 @@ public class Ranking<T> implements Iterable<T> {
 	}
 	
 	public void printRanking(int n){
-		if (ranking == null)
-			ranking = createRanking();
 		int i = 1;
-		for (T v : ranking)
+		for (T v : getRanking())
 			if (i <= n)
 				System.out.println((i++) + ". " + v + " " + scores.get(v));
 	}
 
 	@Override
 	public Iterator<T> iterator() {
-		if (ranking == null)
-			ranking = createRanking();
-		return ranking.iterator();
+		return getRanking().iterator();
 	}
 }
@@ -0,0 +1,88 @@
+package aishields.core;
+
+/**
+ * Ranking that explicitly stores only some of the elements, while the remaining ones form an implicit block of
+ * elements with the same default score, represented only by their count. Explicit elements with the default score
+ * are placed before the implicit block. Methods iterating over elements only return the explicit ones.
+ * 
+ * @author Marcin Waniek
+ *
+ * @param <T> type of elements that are sorted
+ */
+public class SparseRanking<T> extends Ranking<T> {
+	
+	private double implicitScore;
+	private long implicitCount;
+
+	public SparseRanking(double implicitScore) {
+		super();
+		this.implicitScore = implicitScore;
+		this.implicitCount = 0;
+	}
+	
+	public double getImplicitScore() {
+		return implicitScore;
+	}
+	
+	public long getImplicitCount() {
+		return implicitCount;
+	}
+	
+	public void setImplicitCount(long implicitCount) {
+		this.implicitCount = implicitCount;
+	}
+	
+	/**
+	 * Number of explicit and implicit elements.
+	 */
+	public long getTotalSize() {
+		return size() + implicitCount;
+	}
+	
+	/**
+	 * Element at the given position, or null if the position is in the implicit block.
+	 */
+	@Override
+	public T get(int i) {
+		int above = countAtLeast(implicitScore);
+		if (i <= above)
+			return super.get(i);
+		else if (i <= above + implicitCount)
+			return null;
+		else
+			return super.get((int)(i - implicitCount));
+	}
+	
+	@Override
+	public double getBestScore() {
+		T best = getBest();
+		return best == null ? implicitScore : getScore(best);
+	}
+	
+	@Override
+	public T getLast() {
+		return get((int)getTotalSize());
+	}
+	
+	@Override
+	public double getLastScore() {
+		T last = getLast();
+		return last == null ? implicitScore : getScore(last);
+	}
+	
+	@Override
+	public Integer getPosition(T v) {
+		return (int)(super.getPosition(v) + (implicitScore > getScore(v) ? implicitCount : 0));
+	}
+	
+	@Override
+	public Integer getExAequoPosition(T v, double delta) {
+		return (int)(getTopBlockPosition(v, delta) + (implicitScore > getScore(v) + delta ? implicitCount : 0));
+	}
+	
+	@Override
+	public Double getAvgPosition(T v, double delta) {
+		long bot = getBotBlockPosition(v, delta) + (implicitScore >= getScore(v) - delta ? implicitCount : 0);
+		return ((double)getExAequoPosition(v, delta) + bot) / 2;
+	}
+}
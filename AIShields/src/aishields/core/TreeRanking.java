@@ -0,0 +1,248 @@
+package aishields.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Ranking kept in an order statistics tree (treap), so that changing a score, finding the position of an element
+ * and finding an element at a given position all take O(log n) time. Elements with equal scores are ordered by
+ * the time they were first added. Suited to algorithms that repeatedly update a few scores, while for scores that
+ * are loaded once the default {@link Ranking} is faster.
+ * 
+ * @author Marcin Waniek
+ *
+ * @param <T> type of elements that are sorted
+ */
+public class TreeRanking<T> extends Ranking<T> {
+	
+	private Map<T, Node<T>> nodes;
+	private Node<T> root;
+	private long nextSeq;
+	
+	public TreeRanking(){
+		super();
+		this.nodes = new HashMap<>();
+		this.root = null;
+		this.nextSeq = 0;
+	}
+	
+	public TreeRanking(Iterable<T> elements, Function<T, Number> f){
+		this();
+		elements.forEach(t -> setScore(t, f.apply(t).doubleValue()));
+	}
+	
+	@Override
+	public void setScore(T v, double score){
+		Node<T> node = nodes.get(v);
+		if (node == null) {
+			node = new Node<>(v, nextSeq++);
+			nodes.put(v, node);
+		} else
+			root = erase(root, node);
+		node.score = score;
+		node.left = null;
+		node.right = null;
+		node.size = 1;
+		Node<T>[] parts = split(root, node);
+		root = merge(merge(parts[0], node), parts[1]);
+		scores.put(v, score);
+	}
+	
+	@Override
+	public void remove(T v){
+		Node<T> node = nodes.remove(v);
+		if (node != null) {
+			root = erase(root, node);
+			scores.remove(v);
+		}
+	}
+	
+	@Override
+	public T get(int i){
+		Node<T> node = root;
+		while (node != null) {
+			int left = size(node.left);
+			if (i <= left)
+				node = node.left;
+			else if (i == left + 1)
+				return node.value;
+			else {
+				i -= left + 1;
+				node = node.right;
+			}
+		}
+		return null;
+	}
+	
+	@Override
+	public Integer getPosition(T v){
+		Node<T> target = nodes.get(v);
+		if (target == null)
+			return 0;
+		int res = 1;
+		Node<T> node = root;
+		while (node != target)
+			if (before(node, target)) {
+				res += size(node.left) + 1;
+				node = node.right;
+			} else
+				node = node.left;
+		return res + size(target.left);
+	}
+	
+	@Override
+	protected int getTopBlockPosition(T v, double delta) {
+		return 1 + countAbove(getScore(v) + delta);
+	}
+	
+	@Override
+	protected int getBotBlockPosition(T v, double delta) {
+		return countAtLeast(getScore(v) - delta);
+	}
+	
+	/**
+	 * Number of elements with score greater than s.
+	 */
+	public int countHigher(double s) {
+		return countAbove(s);
+	}
+	
+	/**
+	 * Number of elements with score equal to s.
+	 */
+	public int countEqual(double s) {
+		return countAtLeast(s) - countAbove(s);
+	}
+	
+	@Override
+	protected int countAbove(double s) {
+		int res = 0;
+		Node<T> node = root;
+		while (node != null)
+			if (node.score > s) {
+				res += size(node.left) + 1;
+				node = node.right;
+			} else
+				node = node.left;
+		return res;
+	}
+	
+	@Override
+	protected int countAtLeast(double s) {
+		int res = 0;
+		Node<T> node = root;
+		while (node != null)
+			if (node.score >= s) {
+				res += size(node.left) + 1;
+				node = node.right;
+			} else
+				node = node.left;
+		return res;
+	}
+	
+	/**
+	 * Sorted list of elements, created in O(n) time by traversing the tree.
+	 */
+	@Override
+	protected List<T> getRanking(){
+		List<T> res = new ArrayList<>(size());
+		traverse(root, res);
+		return res;
+	}
+	
+	private void traverse(Node<T> node, List<T> res) {
+		if (node != null) {
+			traverse(node.left, res);
+			res.add(node.value);
+			traverse(node.right, res);
+		}
+	}
+	
+	private static <T> int size(Node<T> node) {
+		return node == null ? 0 : node.size;
+	}
+	
+	/**
+	 * Whether a is ranked before b.
+	 */
+	private static <T> boolean before(Node<T> a, Node<T> b) {
+		int cmp = Double.compare(a.score, b.score);
+		return cmp > 0 || (cmp == 0 && a.seq < b.seq);
+	}
+	
+	/**
+	 * Splits the tree into elements ranked before the given node and the remaining ones.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> Node<T>[] split(Node<T> node, Node<T> pivot) {
+		if (node == null)
+			return (Node<T>[]) new Node<?>[] {null, null};
+		if (before(node, pivot)) {
+			Node<T>[] parts = split(node.right, pivot);
+			node.right = parts[0];
+			node.update();
+			parts[0] = node;
+			return parts;
+		} else {
+			Node<T>[] parts = split(node.left, pivot);
+			node.left = parts[1];
+			node.update();
+			parts[1] = node;
+			return parts;
+		}
+	}
+	
+	private static <T> Node<T> merge(Node<T> a, Node<T> b) {
+		if (a == null)
+			return b;
+		if (b == null)
+			return a;
+		if (a.priority > b.priority) {
+			a.right = merge(a.right, b);
+			a.update();
+			return a;
+		} else {
+			b.left = merge(a, b.left);
+			b.update();
+			return b;
+		}
+	}
+	
+	private static <T> Node<T> erase(Node<T> node, Node<T> target) {
+		if (node == target)
+			return merge(node.left, node.right);
+		if (before(node, target))
+			node.right = erase(node.right, target);
+		else
+			node.left = erase(node.left, target);
+		node.update();
+		return node;
+	}
+	
+	private static class Node<T> {
+		
+		private T value;
+		private long seq;
+		private long priority;
+		private double score;
+		private int size;
+		private Node<T> left;
+		private Node<T> right;
+		
+		public Node(T value, long seq) {
+			this.value = value;
+			this.seq = seq;
+			long z = seq * 0x9E3779B97F4A7C15L;
+			z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+			this.priority = z ^ (z >>> 27);
+			this.size = 1;
+		}
+		
+		public void update() {
+			size = 1 + TreeRanking.size(left) + TreeRanking.size(right);
+		}
+	}
+}
@@ -36,6 +36,8 @@ public class ExperimentResult implements Iterable<Row> {
 	
 	private File resultFile;
 	private BufferedWriter saveImmidiately;
+	private int flushEvery;
+	private int unflushed;
 	
 	private List<String> header;
 	private List<String> colNames;
@@ -107,7 +109,69 @@ public class ExperimentResult implements Iterable<Row> {
 	}
 	
 	public void setSaveImmidiately(BufferedWriter saveImmidiately) {
+		setSaveImmidiately(saveImmidiately, 1);
+	}
+	
+	/**
+	 * Rows are written to the writer instead of being kept in memory, and the writer is flushed every
+	 * flushEvery rows.
+	 */
+	public void setSaveImmidiately(BufferedWriter saveImmidiately, int flushEvery) {
 		this.saveImmidiately = saveImmidiately;
+		this.flushEvery = flushEvery;
+		this.unflushed = 0;
+	}
+	
+	/**
+	 * Starts writing rows to the file as they are added, flushing every flushEvery rows. If resume is set and the
+	 * file holds rows of a result with the same header and column names, these rows are kept (except for a last
+	 * line left incomplete by an interrupted run) and returned, otherwise the file is started anew. A complete row
+	 * with a wrong number of cells is an error, as the kept rows would no longer be a prefix of all rows.
+	 * 
+	 * @return rows already present in the file
+	 */
+	public List<Row> startSaving(String filePath, boolean resume, int flushEvery) {
+		List<Row> res = new ArrayList<>();
+		List<String> lines = resume && new File(filePath).exists()
+				? FileReaderWriter.importCompleteLinesFromFile(filePath) : null;
+		if (lines != null && lines.size() >= 2 && FileReaderWriter.splitCSVLine(lines.get(0)).equals(header)
+				&& FileReaderWriter.splitCSVLine(lines.get(1)).equals(colNames)) {
+			for (String line : lines.subList(2, lines.size())) {
+				List<String> elems = FileReaderWriter.splitCSVLineKeepingEmpty(line);
+				if (elems.size() != colNames.size())
+					throw new IllegalStateException("Row \"" + line + "\" in " + filePath + " has " + elems.size()
+							+ " cells instead of " + colNames.size() + ", cannot resume.");
+				res.add(new Row(colNames, new ArrayList<>(elems)));
+			}
+		} else {
+			if (lines != null)
+				System.err.println("Result in " + filePath + " does not match, starting anew.");
+			lines = Utils.aList(FileReaderWriter.concat(header), FileReaderWriter.concat(colNames));
+		}
+		FileReaderWriter.exportToFileAtomically(Stream.concat(lines.stream().limit(2),
+				res.stream().map(r -> FileReaderWriter.concat(r.getElements()))).collect(Collectors.toList()),
+				filePath);
+		try {
+			setSaveImmidiately(FileReaderWriter.getAppendingWriter(filePath), flushEvery);
+		} catch (IOException e) {
+			System.err.println("Error when opening the experiment results file.");
+			e.printStackTrace();
+		}
+		return res;
+	}
+	
+	/**
+	 * Flushes and closes the writer started by {@link #startSaving(String, boolean, int)}.
+	 */
+	public void stopSaving() {
+		if (saveImmidiately != null)
+			try {
+				saveImmidiately.close();
+			} catch (IOException e) {
+				System.err.println("Error when closing the experiment results file.");
+				e.printStackTrace();
+			}
+		saveImmidiately = null;
 	}
 
 	public File getResultDir() {
@@ -180,7 +244,10 @@ public class ExperimentResult implements Iterable<Row> {
 			try {
 				saveImmidiately.write(FileReaderWriter.concat(r.getElements()));
 				saveImmidiately.newLine();
-				saveImmidiately.flush();
+				if (++unflushed >= flushEvery) {
+					saveImmidiately.flush();
+					unflushed = 0;
+				}
 			} catch (IOException e) {
 				System.err.println("Error when writing to the experiment results file.");
 				e.printStackTrace();
@@ -1,14 +1,17 @@
 package aishields.linkprediction;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.SplittableRandom;
 
 import aishields.core.Edge;
 import aishields.core.Graph;
-import aishields.core.MonteCarloAlgorithm;
-import aishields.core.Ranking;
+import aishields.core.ParallelMonteCarloAlgorithm;
 import aishields.linkprediction.algorithms.LinkPredictionAlgorithm;
+import aishields.linkprediction.algorithms.ScoreConsumer;
+import aishields.linkprediction.algorithms.local.FusedLocalScorer;
 import aishields.utils.Utils;
 
 /**
@@ -20,7 +23,16 @@ public class AreaUnderROCCurve {
 	private static final int MONTE_CARLO_THRESHOLD = 900;
 	
 	public static double computeAUC(Graph g, Set<Edge> probeSet, LinkPredictionAlgorithm alg){
-		return computeAUC(g, probeSet, alg, (g.size() < MONTE_CARLO_THRESHOLD));
+		return computeAUC(g, probeSet, alg, g.size() < MONTE_CARLO_THRESHOLD);
+	}
+	
+	/**
+	 * AUC computed exactly for local algorithms regardless of the size of the graph, as they stream scores only of
+	 * non-edges with a common neighbour, and as by {@link #computeAUC(Graph, Set, LinkPredictionAlgorithm)}
+	 * for other algorithms.
+	 */
+	public static double computeAUCExactIfLocal(Graph g, Set<Edge> probeSet, LinkPredictionAlgorithm alg){
+		return computeAUC(g, probeSet, alg, alg.isLocal() || g.size() < MONTE_CARLO_THRESHOLD);
 	}
 	
 	public static double computeAUC(Graph g, Set<Edge> probeSet, LinkPredictionAlgorithm alg,
@@ -28,68 +40,373 @@ public class AreaUnderROCCurve {
 		if (exact)
 			return computeExact(g, probeSet, alg);
 		else
-			return computeMonteCarlo(g, probeSet, alg);
+			return computeMonteCarlo(g, probeSet, alg, SamplingStrategy.STRATIFIED);
+	}
+	
+	/**
+	 * Exact AUC of every probe set for every algorithm, where the result[p][a] is the AUC of the p-th probe set
+	 * for the a-th algorithm. Non-edges are scored once per algorithm and all probe sets are evaluated against
+	 * the shared sorted scores.
+	 */
+	public static double[][] computeAUCs(Graph g, List<Set<Edge>> probeSets, List<LinkPredictionAlgorithm> algs){
+		return computeAUCs(g, probeSets, algs, false);
+	}
+	
+	/**
+	 * Exact AUC of every probe set for every algorithm, where the result[p][a] is the AUC of the p-th probe set
+	 * for the a-th algorithm. If fused, algorithms supported by the {@link FusedLocalScorer} score non-edges
+	 * together in a single pass.
+	 */
+	public static double[][] computeAUCs(Graph g, List<Set<Edge>> probeSets, List<LinkPredictionAlgorithm> algs,
+			boolean fused){
+		long[] probeKeys = probeSets.stream().flatMap(p -> p.stream()).filter(e -> !g.containsEdge(e))
+				.mapToLong(e -> e.key()).distinct().sorted().toArray();
+		List<ScoreCollector> collectors = new ArrayList<>();
+		List<LinkPredictionAlgorithm> fusedAlgs = new ArrayList<>();
+		List<ScoreConsumer> fusedCollectors = new ArrayList<>();
+		for (LinkPredictionAlgorithm alg : algs) {
+			ScoreCollector c = new ScoreCollector(g, probeKeys);
+			collectors.add(c);
+			if (fused && FusedLocalScorer.supports(g, alg)) {
+				fusedAlgs.add(alg);
+				fusedCollectors.add(c);
+			} else
+				c.skipped = alg.scoreNonEdges(g, c);
+		}
+		if (!fusedAlgs.isEmpty()) {
+			long skipped = FusedLocalScorer.scoreNonEdges(g, fusedAlgs, fusedCollectors);
+			fusedCollectors.forEach(c -> ((ScoreCollector)c).skipped = skipped);
+		}
+		double[][] res = new double[probeSets.size()][algs.size()];
+		for (int a = 0; a < algs.size(); ++a) {
+			ScoreCollector c = collectors.get(a);
+			Arrays.sort(c.scores, 0, c.size);
+			for (int p = 0; p < probeSets.size(); ++p)
+				res[p][a] = c.computeAUC(g, probeSets.get(p));
+		}
+		return res;
+	}
+	
+	/**
+	 * AUC of the probe set that can be cheaply recomputed after flipping single edges of the graph.
+	 */
+	public static IncrementalAUC createIncremental(Graph g, Set<Edge> probeSet, LinkPredictionAlgorithm alg){
+		return new IncrementalAUC(g, probeSet, alg);
+	}
+	
+	/**
+	 * Positions of the target non-edges among all other non-edges, computed in a single counting pass.
+	 */
+	public static TargetRanks computeTargetRanks(Graph g, List<Edge> targets, LinkPredictionAlgorithm alg){
+		return computeTargetRanks(g, targets, alg, Double.NEGATIVE_INFINITY);
+	}
+	
+	/**
+	 * Positions of the target non-edges among all other non-edges, computed in a single counting pass.
+	 * Counting stops as soon as the AUC of targets is certain to be lower than minAUC, in which case the result
+	 * holds only an upper bound of the AUC.
+	 */
+	public static TargetRanks computeTargetRanks(Graph g, List<Edge> targets, LinkPredictionAlgorithm alg,
+			double minAUC){
+		TargetRanks res = new TargetRanks(g, targets, alg, minAUC);
+		res.acceptSkipped(alg.scoreNonEdges(g, res));
+		return res;
 	}
 	
+	/**
+	 * Exact AUC computed as the Mann-Whitney statistic. Scores of non-edges are streamed once and compared with the
+	 * sorted scores of probe edges, so only O(|probeSet|) memory is used.
+	 */
 	private static double computeExact(Graph g, Set<Edge> probeSet, LinkPredictionAlgorithm alg){
-		Ranking<Edge> r = alg.getNonEdgesRanking(g);
-		int probeLeft = probeSet.size();
-		int otherLeft = r.size() - probeSet.size();
-		double totalPairs = probeLeft * otherLeft; 
-
-		double sum = 0;
-		int i = 0; 
-		while (i < r.size()){
-			int probeSegment = 0;
-			int otherSegment = 0;
-			Edge e;
-			do {
-				e = r.get(i+1);
-				if (probeSet.contains(e)){
-					probeSegment++;
-					probeLeft--;
-				} else {
-					otherSegment++;
-					otherLeft--;
+		RankSumCounter counter = new RankSumCounter(g, probeSet, alg);
+		long skipped = alg.scoreNonEdges(g, counter);
+		counter.acceptMultiple(skipped - (counter.probes.length - counter.streamedProbes), 0.);
+		return counter.sum / ((double)probeSet.size() * (g.nonEdgesCount() - probeSet.size()));
+	}
+	
+	/**
+	 * AUC estimated by comparing scores of random probe edges and random other non-edges. Samples are drawn in
+	 * parallel from random streams seeded from {@link Utils#RAND}.
+	 */
+	public static double computeMonteCarlo(Graph g, Set<Edge> probeSet, LinkPredictionAlgorithm alg,
+			SamplingStrategy strategy){
+		return new AUCSampler(g, probeSet, alg, strategy, Utils.RAND.nextLong()).runParallelProcess();
+	}
+	
+	/**
+	 * Ways of sampling non-edges compared with probe edges.
+	 * UNIFORM draws a uniformly random non-edge.
+	 * STRATIFIED splits non-edges into the ones whose ends have a common neighbour and the remaining ones, sampling
+	 * both strata in every iteration and weighting them by their sizes. For local algorithms all scores in the
+	 * second stratum are zero, so its part is computed analytically.
+	 * ANTITHETIC draws a pair of non-edges with indices r and N - 1 - r in the row-major order.
+	 */
+	public static enum SamplingStrategy {
+		UNIFORM, STRATIFIED, ANTITHETIC
+	}
+	
+	private static class AUCSampler extends ParallelMonteCarloAlgorithm {
+		
+		private Graph g;
+		private LinkPredictionAlgorithm alg;
+		private SamplingStrategy strategy;
+		private List<Edge> probes;
+		private long[] probeKeys;
+		private NonEdgeSampler sampler;
+		private double twoHopWeight;
+		private double zeroWeight;
+		private double nonEdgesRatio;
+		
+		public AUCSampler(Graph g, Set<Edge> probeSet, LinkPredictionAlgorithm alg, SamplingStrategy strategy,
+				long seed) {
+			super(seed);
+			this.g = g;
+			this.alg = alg;
+			this.strategy = strategy;
+			this.probes = new ArrayList<>(probeSet);
+			this.probeKeys = probeSet.stream().mapToLong(e -> e.key()).sorted().toArray();
+			if (strategy != SamplingStrategy.UNIFORM) {
+				this.sampler = new NonEdgeSampler(g);
+				long probesAll = probeSet.stream().filter(e -> !g.containsEdge(e)).count();
+				long probesTwoHop = probeSet.stream().filter(e -> !g.containsEdge(e))
+						.filter(e -> sampler.getCommonNeighsCount(e.i(), e.j()) > 0).count();
+				long twoHop = g.twoHopNonEdgesCount() - probesTwoHop;
+				long zero = g.nonEdgesCount() - g.twoHopNonEdgesCount() - (probesAll - probesTwoHop);
+				this.twoHopWeight = (double)twoHop / (twoHop + zero);
+				this.zeroWeight = (double)zero / (twoHop + zero);
+				this.nonEdgesRatio = (double)g.nonEdgesCount() / (g.nonEdgesCount() - probesAll);
+			}
+		}
+		
+		@Override
+		public int getMinIterations() {
+			return 10000;
+		}
+		
+		@Override
+		protected double sample(SplittableRandom rand) {
+			Edge probe = probes.get(rand.nextInt(probes.size()));
+			double probeScore = alg.getScore(g, probe);
+			switch (strategy) {
+			case STRATIFIED:
+				return sampleStratified(rand, probeScore);
+			case ANTITHETIC:
+				return sampleAntithetic(rand, probeScore);
+			default:
+				return sampleUniform(rand, probeScore);
+			}
+		}
+		
+		private double sampleUniform(SplittableRandom rand, double probeScore) {
+			while (true) {
+				int i = rand.nextInt(g.size());
+				int j = rand.nextInt(g.size());
+				if (i != j && !g.containsEdge(i, j) && !isProbe(i, j))
+					return compare(probeScore, alg.getScore(g, i, j));
+			}
+		}
+		
+		private double sampleStratified(SplittableRandom rand, double probeScore) {
+			double res = 0.;
+			if (twoHopWeight > 0.) {
+				long pair;
+				do {
+					pair = sampler.sampleTwoHopNonEdge(rand);
+				} while (isProbe(NonEdgeSampler.i(pair), NonEdgeSampler.j(pair)));
+				res += twoHopWeight * compare(probeScore,
+						alg.getScore(g, NonEdgeSampler.i(pair), NonEdgeSampler.j(pair)));
+			}
+			if (zeroWeight > 0.) {
+				if (alg.isLocal())
+					res += zeroWeight * compare(probeScore, 0.);
+				else {
+					long pair;
+					do {
+						pair = sampler.sampleNonEdge(rand);
+					} while (sampler.getCommonNeighsCount(NonEdgeSampler.i(pair), NonEdgeSampler.j(pair)) > 0
+							|| isProbe(NonEdgeSampler.i(pair), NonEdgeSampler.j(pair)));
+					res += zeroWeight * compare(probeScore,
+							alg.getScore(g, NonEdgeSampler.i(pair), NonEdgeSampler.j(pair)));
 				}
-				++i;
-			} while (i < r.size() && r.getScore(e) == r.getScore(r.get(i+1)));
-			sum += probeSegment * otherLeft + (double) probeSegment * otherSegment / 2; 
+			}
+			return res;
+		}
+		
+		/**
+		 * Probe edges are counted as ties with weight zero, so the average of the pair is scaled up to keep the
+		 * estimator unbiased.
+		 */
+		private double sampleAntithetic(SplittableRandom rand, double probeScore) {
+			long r = rand.nextLong(sampler.nonEdgesCount());
+			long first = sampler.getNonEdge(r);
+			long second = sampler.getNonEdge(sampler.nonEdgesCount() - 1 - r);
+			double res = 0.;
+			for (long pair : new long[] {first, second})
+				if (!isProbe(NonEdgeSampler.i(pair), NonEdgeSampler.j(pair)))
+					res += compare(probeScore, alg.getScore(g, NonEdgeSampler.i(pair), NonEdgeSampler.j(pair)));
+			return nonEdgesRatio * res / 2;
+		}
+		
+		private boolean isProbe(int i, int j) {
+			return Arrays.binarySearch(probeKeys, Edge.key(i, j, g.isDirected())) >= 0;
+		}
+		
+		private static double compare(double probeScore, double score) {
+			if (probeScore > score)
+				return 1.;
+			else if (probeScore == score)
+				return 0.5;
+			return 0.;
 		}
-		return sum / totalPairs;
 	}
 	
-	private static double computeMonteCarlo(final Graph g, final Set<Edge> probeSet,
-			final LinkPredictionAlgorithm alg){
-		return new MonteCarloAlgorithm() {
+	/**
+	 * Collects all streamed scores, remembering separately the scores of probe edges.
+	 */
+	private static class ScoreCollector implements ScoreConsumer {
+		
+		private boolean directed;
+		private long[] probeKeys;
+		private double[] probeScores;
+		private double[] scores;
+		private int size;
+		private long skipped;
+		
+		public ScoreCollector(Graph g, long[] probeKeys) {
+			this.directed = g.isDirected();
+			this.probeKeys = probeKeys;
+			this.probeScores = new double[probeKeys.length];
+			this.scores = new double[16];
+			this.size = 0;
+			this.skipped = 0;
+		}
 
-			private double identifiedSum = 0.;
-			private List<Edge> probeEdges = new ArrayList<>(probeSet);
-									
-			@Override
-			protected void singleMCIteration() {
-				Edge probe = probeEdges.get(Utils.RAND.nextInt(probeSet.size()));
-				Edge rest = null;
-				while (rest == null) {
-					Edge e = new Edge(Utils.RAND.nextInt(g.size()),
-							Utils.RAND.nextInt(g.size()), g.isDirected());
-					if ((e.i() != e.j()) && !g.containsEdge(e) && !probeSet.contains(e))
-						rest = e;
+		@Override
+		public void accept(int i, int j, double score) {
+			if (size == scores.length)
+				scores = Arrays.copyOf(scores, 2 * size);
+			scores[size++] = score;
+			int pos = Arrays.binarySearch(probeKeys, Edge.key(i, j, directed));
+			if (pos >= 0)
+				probeScores[pos] = score;
+		}
+		
+		/**
+		 * Mann-Whitney statistic of the probe set computed from the sorted scores of all non-edges,
+		 * from which comparisons between pairs of probe edges are subtracted. Counts are kept doubled to stay exact.
+		 */
+		public double computeAUC(Graph g, Set<Edge> probeSet) {
+			long probes = 0;
+			long doubledSum = 0;
+			for (Edge e : probeSet)
+				if (!g.containsEdge(e)) {
+					double s = probeScores[Arrays.binarySearch(probeKeys, e.key())];
+					int lower = lowerBound(s);
+					int upper = upperBound(s);
+					doubledSum += 2 * (lower + (s > 0. ? skipped : 0)) + (upper - lower) + (s == 0. ? skipped : 0);
+					++probes;
 				}
-				if (alg.getScore(g, probe) > alg.getScore(g, rest))
-					identifiedSum += 1.;
-				else if (alg.getScore(g, probe) == alg.getScore(g, rest))
-					identifiedSum += 0.5;
+			doubledSum -= probes * probes;
+			return (doubledSum / 2.) / ((double)probeSet.size() * (g.nonEdgesCount() - probeSet.size()));
+		}
+		
+		/**
+		 * Number of scores smaller than s.
+		 */
+		private int lowerBound(double s) {
+			int l = 0;
+			int h = size;
+			while (l < h) {
+				int m = (l + h) / 2;
+				if (scores[m] < s)
+					l = m + 1;
+				else
+					h = m;
+			}
+			return l;
+		}
+		
+		/**
+		 * Number of scores not greater than s.
+		 */
+		private int upperBound(double s) {
+			int l = 0;
+			int h = size;
+			while (l < h) {
+				int m = (l + h) / 2;
+				if (scores[m] <= s)
+					l = m + 1;
+				else
+					h = m;
 			}
-			
-			@Override
-			protected double getControlSum(int iter) {
-				return identifiedSum / iter;
+			return l;
+		}
+	}
+	
+	/**
+	 * Counts, for streamed scores of non-probe non-edges, the number of probe edges with higher and equal scores.
+	 */
+	private static class RankSumCounter implements ScoreConsumer {
+		
+		private boolean directed;
+		private long[] probes;
+		private double[] probeScores;
+		private int streamedProbes;
+		private double sum;
+		
+		public RankSumCounter(Graph g, Set<Edge> probeSet, LinkPredictionAlgorithm alg) {
+			this.directed = g.isDirected();
+			this.probes = probeSet.stream().filter(e -> !g.containsEdge(e)).mapToLong(e -> e.key()).sorted().toArray();
+			this.probeScores = probeSet.stream().filter(e -> !g.containsEdge(e)).mapToDouble(e -> alg.getScore(g, e))
+					.sorted().toArray();
+			this.streamedProbes = 0;
+			this.sum = 0.;
+		}
+
+		@Override
+		public void accept(int i, int j, double score) {
+			if (Arrays.binarySearch(probes, Edge.key(i, j, directed)) >= 0)
+				++streamedProbes;
+			else
+				acceptMultiple(1, score);
+		}
+		
+		public void acceptMultiple(long count, double score) {
+			int lower = lowerBound(score);
+			int upper = upperBound(score);
+			sum += count * (probeScores.length - upper + (double)(upper - lower) / 2);
+		}
+		
+		/**
+		 * Number of probe scores smaller than s.
+		 */
+		private int lowerBound(double s) {
+			int l = 0;
+			int h = probeScores.length;
+			while (l < h) {
+				int m = (l + h) / 2;
+				if (probeScores[m] < s)
+					l = m + 1;
+				else
+					h = m;
 			}
-			
-			public int getMinIterations() {
-				return 10000;
+			return l;
+		}
+		
+		/**
+		 * Number of probe scores not greater than s.
+		 */
+		private int upperBound(double s) {
+			int l = 0;
+			int h = probeScores.length;
+			while (l < h) {
+				int m = (l + h) / 2;
+				if (probeScores[m] <= s)
+					l = m + 1;
+				else
+					h = m;
 			}
-		}.runProcess();
+			return l;
+		}
 	}
 }
@@ -0,0 +1,155 @@
+package aishields.linkprediction;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+import aishields.core.Edge;
+import aishields.core.Graph;
+import aishields.linkprediction.algorithms.LinkPredictionAlgorithm;
+
+/**
+ * Thread-safe bounded memo of evaluations of a probe set by a group of algorithms, keyed by the fingerprint of the
+ * graph, so that configurations of a graph reached by different sequences of changes are evaluated only once.
+ * The oldest entries are discarded once the cache exceeds its capacity.
+ *
+ * @author Marcin Waniek
+ */
+public class EvaluationCache<V> {
+
+	public static final int DEFAULT_MAX_ENTRIES = 1 << 20;
+
+	private int maxEntries;
+	private ConcurrentHashMap<Key, V> entries;
+	private ConcurrentLinkedQueue<Key> insertionOrder;
+
+	public EvaluationCache(int maxEntries) {
+		this.maxEntries = maxEntries;
+		this.entries = new ConcurrentHashMap<>();
+		this.insertionOrder = new ConcurrentLinkedQueue<>();
+	}
+
+	public EvaluationCache() {
+		this(DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * Value for the graph with the given fingerprint, computed if not present.
+	 */
+	public V get(Context c, Graph g, long fingerprint, Supplier<V> compute) {
+		Key key = new Key(c, g, fingerprint);
+		V res = entries.get(key);
+		if (res == null) {
+			res = compute.get();
+			put(key, res);
+		}
+		return res;
+	}
+
+	public V get(Context c, Graph g, Supplier<V> compute) {
+		return get(c, g, g.getFingerprint(), compute);
+	}
+
+	/**
+	 * Value for the graph with the given fingerprint, or null if not present.
+	 */
+	public V get(Context c, Graph g, long fingerprint) {
+		return entries.get(new Key(c, g, fingerprint));
+	}
+
+	public void put(Context c, Graph g, long fingerprint, V value) {
+		put(new Key(c, g, fingerprint), value);
+	}
+
+	private void put(Key key, V value) {
+		if (entries.putIfAbsent(key, value) == null) {
+			insertionOrder.add(key);
+			while (entries.size() > maxEntries) {
+				Key oldest = insertionOrder.poll();
+				if (oldest == null)
+					break;
+				entries.remove(oldest);
+			}
+		}
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public void clear() {
+		entries.clear();
+		insertionOrder.clear();
+	}
+
+	/**
+	 * Probe set and group of algorithms shared by many evaluations. Algorithms are compared by identity.
+	 */
+	public static class Context {
+
+		private long[] probes;
+		private LinkPredictionAlgorithm[] algs;
+		private int hash;
+
+		public Context(Set<Edge> probeSet, List<LinkPredictionAlgorithm> algs) {
+			this.probes = probeSet.stream().mapToLong(e -> e.key()).sorted().toArray();
+			this.algs = algs.toArray(new LinkPredictionAlgorithm[algs.size()]);
+			this.hash = Arrays.hashCode(probes);
+			for (LinkPredictionAlgorithm alg : algs)
+				this.hash = 31 * hash + System.identityHashCode(alg);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (o == null || !(o instanceof Context))
+				return false;
+			Context c = (Context)o;
+			if (hash != c.hash || algs.length != c.algs.length || !Arrays.equals(probes, c.probes))
+				return false;
+			for (int a = 0; a < algs.length; ++a)
+				if (algs[a] != c.algs[a])
+					return false;
+			return true;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	private static class Key {
+
+		private Context c;
+		private long fingerprint;
+		private int n;
+		private boolean directed;
+
+		public Key(Context c, Graph g, long fingerprint) {
+			this.c = c;
+			this.fingerprint = fingerprint;
+			this.n = g.size();
+			this.directed = g.isDirected();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (o == null || !(o instanceof Key))
+				return false;
+			Key k = (Key)o;
+			return fingerprint == k.fingerprint && n == k.n && directed == k.directed && c.equals(k.c);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * c.hashCode() + Long.hashCode(fingerprint);
+		}
+	}
+}
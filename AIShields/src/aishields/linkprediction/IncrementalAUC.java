@@ -0,0 +1,284 @@
+package aishields.linkprediction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import aishields.core.Edge;
+import aishields.core.Graph;
+import aishields.linkprediction.algorithms.LinkPredictionAlgorithm;
+import aishields.utils.Utils;
+
+/**
+ * AUC of a probe set that is updated after flipping single edges of the graph. For local algorithms scores of all
+ * non-probe non-edges are kept only as a {@link ScoreDistribution}, which is never modified and can be shared by
+ * AUCs of copies of the graph, together with the distribution of changes of scores since, which is folded into
+ * a distribution of its own once it outgrows the shared one.
+ * A flip of (u, v) only rescores pairs that contain u or v, which are the only pairs whose local scores can change,
+ * and for algorithms weighted by degrees of common neighbours also pairs of neighbours of u or v, so evaluating it
+ * only reads the distributions, as the AUC changes only by the rescored pairs whose scores cross the scores of
+ * probes. Other algorithms recompute the AUC from scratch, which does not scale to large networks.
+ *
+ * @author Marcin Waniek
+ */
+public class IncrementalAUC {
+
+	/**
+	 * Pair keys are multiplied by an odd constant, and recovered by its inverse modulo 2^64, as hash codes of
+	 * plain keys of pairs (i, j) only depend on i ^ j and collide heavily in hash maps.
+	 */
+	private static final long MIX = 0x9E3779B97F4A7C15L;
+	private static final long UNMIX = 0xF1DE83E19937733DL;
+
+	private Graph g;
+	private Set<Edge> probeSet;
+	private Set<Long> probes;
+	private LinkPredictionAlgorithm alg;
+	private long version;
+	private ScoreDistribution base;
+	private ScoreDistribution changes;
+
+	protected IncrementalAUC(Graph g, Set<Edge> probeSet, LinkPredictionAlgorithm alg) {
+		this.g = g;
+		this.probeSet = probeSet;
+		this.probes = new HashSet<>();
+		probeSet.forEach(e -> probes.add(e.key() * MIX));
+		this.alg = alg;
+		if (alg.isLocal())
+			rebuild();
+	}
+
+	/**
+	 * AUC of the same probe set and algorithm in a copy of the graph of the shared AUC, made in its current state.
+	 * Both distributions are shared, as flips of the copy replace them instead of modifying them.
+	 */
+	protected IncrementalAUC(Graph g, IncrementalAUC shared) {
+		this.g = g;
+		this.probeSet = shared.probeSet;
+		this.probes = shared.probes;
+		this.alg = shared.alg;
+		if (alg.isLocal()) {
+			shared.ensureVersion();
+			this.base = shared.base;
+			this.changes = shared.changes;
+			this.version = g.getVersion();
+		}
+	}
+
+	private void rebuild() {
+		ScoreDistribution.Builder scores = new ScoreDistribution.Builder();
+		alg.scoreNonEdges(g, (i, j, score) -> {
+			if (!probes.contains(key(i, j, g.isDirected())))
+				scores.add(score);
+		});
+		long nonProbes = g.nonEdgesCount() - probeSet.stream().filter(e -> !g.containsEdge(e)).count();
+		base = scores.build(nonProbes - scores.size());
+		changes = ScoreDistribution.EMPTY;
+		version = g.getVersion();
+	}
+
+	private void ensureVersion() {
+		if (version != g.getVersion())
+			rebuild();
+	}
+
+	public double getAUC() {
+		if (!alg.isLocal())
+			return AreaUnderROCCurve.computeAUC(g, probeSet, alg);
+		ensureVersion();
+		return computeAUC(new Rescoring(new long[0]));
+	}
+
+	/**
+	 * AUC after flipping the edge (u, v), leaving the graph unchanged.
+	 */
+	public double computeFlipAUC(int u, int v) {
+		return computeFlipAUCs(Utils.aList(this), u, v)[0];
+	}
+
+	/**
+	 * Flips the edge (u, v) in the graph and updates the AUC.
+	 */
+	public double applyFlip(int u, int v) {
+		return applyFlip(Utils.aList(this), u, v)[0];
+	}
+
+	/**
+	 * AUCs after flipping the edge (u, v), leaving the graph unchanged. All AUCs have to be of the same graph,
+	 * which is flipped only once for all of them.
+	 */
+	public static double[] computeFlipAUCs(List<IncrementalAUC> aucs, int u, int v) {
+		Graph g = aucs.get(0).g;
+		double[] res = new double[aucs.size()];
+		flip(aucs, u, v, res);
+		g.swapEdge(u, v);
+		aucs.forEach(auc -> auc.version = g.getVersion());
+		return res;
+	}
+
+	/**
+	 * Flips the edge (u, v) in the graph and updates all AUCs, which have to be of the same graph.
+	 */
+	public static double[] applyFlip(List<IncrementalAUC> aucs, int u, int v) {
+		Graph g = aucs.get(0).g;
+		double[] res = new double[aucs.size()];
+		List<Rescoring> rescorings = flip(aucs, u, v, res);
+		for (int a = 0; a < aucs.size(); ++a)
+			if (rescorings.get(a) != null)
+				aucs.get(a).record(rescorings.get(a));
+		aucs.forEach(auc -> auc.version = g.getVersion());
+		return res;
+	}
+
+	/**
+	 * Flips the edge (u, v) in the graph, storing AUCs afterwards in res and returning rescorings of pairs affected
+	 * by the flip for local algorithms, and nulls for other ones.
+	 */
+	private static List<Rescoring> flip(List<IncrementalAUC> aucs, int u, int v, double[] res) {
+		Graph g = aucs.get(0).g;
+		aucs.forEach(auc -> auc.ensureVersion());
+		long[][] keys = getAffectedPairs(g, u, v, aucs.stream().anyMatch(auc -> auc.alg.isDegreeWeighted()));
+		List<Rescoring> rescorings = new ArrayList<>();
+		for (IncrementalAUC auc : aucs)
+			rescorings.add(auc.alg.isLocal()
+					? auc.new Rescoring(auc.withoutProbes(keys[auc.alg.isDegreeWeighted() ? 1 : 0]))
+					: null);
+		g.swapEdge(u, v);
+		for (int a = 0; a < aucs.size(); ++a) {
+			IncrementalAUC auc = aucs.get(a);
+			if (rescorings.get(a) != null) {
+				rescorings.get(a).rescore();
+				res[a] = auc.computeAUC(rescorings.get(a));
+			} else
+				res[a] = AreaUnderROCCurve.computeAUC(g, auc.probeSet, auc.alg);
+		}
+		return rescorings;
+	}
+
+	private long[] withoutProbes(long[] keys) {
+		return Arrays.stream(keys).filter(key -> !probes.contains(key)).toArray();
+	}
+
+	/**
+	 * Records changes of scores of the rescored pairs of an applied flip.
+	 */
+	private void record(Rescoring r) {
+		changes = changes.plus(ScoreDistribution.ofChanges(r.before, r.after));
+		if (changes.distinctCount() > base.distinctCount()) {
+			base = base.plus(changes);
+			changes = ScoreDistribution.EMPTY;
+		}
+	}
+
+	/**
+	 * Distinct keys of pairs whose local scores may differ with and without the edge (u, v), regardless of whether
+	 * it is present: pairs of u or v with nodes at distance at most two, and if weighted is true, in the second
+	 * array, also pairs of neighbours of u or v, where u and v count as neighbours. Keys are kept in primitive
+	 * arrays, as the latter are quadratic in the degrees of u and v.
+	 */
+	private static long[][] getAffectedPairs(Graph g, int u, int v, boolean weighted) {
+		int[][] neighs = {
+			IntStream.concat(g.getNeighsStream(u), IntStream.of(v)).distinct().toArray(),
+			IntStream.concat(g.getNeighsStream(v), IntStream.of(u)).distinct().toArray()
+		};
+		int[] ends = {u, v};
+		LongStream.Builder pairs = LongStream.builder();
+		for (int k = 0; k < 2; ++k) {
+			int w = ends[k];
+			for (int x : neighs[k]) {
+				addPair(g, pairs, w, x);
+				g.getNeighsStream(x).forEach(y -> addPair(g, pairs, w, y));
+			}
+		}
+		long[] keys = distinct(pairs);
+		if (!weighted)
+			return new long[][] {keys, null};
+		LongStream.Builder weightedPairs = LongStream.builder();
+		for (long key : keys)
+			weightedPairs.add(key);
+		for (int[] ns : neighs)
+			for (int a = 0; a < ns.length; ++a)
+				for (int b = a + 1; b < ns.length; ++b)
+					addPair(g, weightedPairs, ns[a], ns[b]);
+		return new long[][] {keys, distinct(weightedPairs)};
+	}
+
+	private static void addPair(Graph g, LongStream.Builder res, int i, int j) {
+		if (i != j) {
+			res.add(key(i, j, g.isDirected()));
+			if (g.isDirected())
+				res.add(key(j, i, true));
+		}
+	}
+
+	private static long[] distinct(LongStream.Builder keys) {
+		long[] res = keys.build().sorted().toArray();
+		int size = 0;
+		for (int k = 0; k < res.length; ++k)
+			if (size == 0 || res[k] != res[size - 1])
+				res[size++] = res[k];
+		return Arrays.copyOf(res, size);
+	}
+
+	private static long key(int i, int j, boolean directed) {
+		return Edge.key(i, j, directed) * MIX;
+	}
+
+	/**
+	 * AUC of the current graph, with scores of the rescored pairs taken as they are after the flip.
+	 */
+	private double computeAUC(Rescoring r) {
+		long others = base.size() + changes.size();
+		for (int k = 0; k < r.keys.length; ++k)
+			others += (Double.isNaN(r.after[k]) ? 0 : 1) - (Double.isNaN(r.before[k]) ? 0 : 1);
+		long doubledSum = 0;
+		for (Edge e : probeSet)
+			if (!g.containsEdge(e)) {
+				double s = alg.getScore(g, e);
+				long higher = base.countHigher(s) + changes.countHigher(s);
+				long equal = base.countEqual(s) + changes.countEqual(s);
+				for (int k = 0; k < r.keys.length; ++k) {
+					higher += (r.after[k] > s ? 1 : 0) - (r.before[k] > s ? 1 : 0);
+					equal += (r.after[k] == s ? 1 : 0) - (r.before[k] == s ? 1 : 0);
+				}
+				doubledSum += 2 * (others - higher - equal) + equal;
+			}
+		return (doubledSum / 2.) / ((double)probeSet.size() * (g.nonEdgesCount() - probeSet.size()));
+	}
+
+	/**
+	 * Scores of non-probe pairs affected by a flip before and after it, with NaN for pairs that are edges.
+	 * Scores before the flip are computed on creation, and scores after it by {@link #rescore()} once it is done,
+	 * neither of them cached, as every flip changes the version of the graph.
+	 */
+	private class Rescoring {
+
+		private long[] keys;
+		private double[] before;
+		private double[] after;
+
+		private Rescoring(long[] keys) {
+			this.keys = keys;
+			this.before = scores();
+			this.after = before;
+		}
+
+		private void rescore() {
+			after = scores();
+		}
+
+		private double[] scores() {
+			double[] res = new double[keys.length];
+			for (int k = 0; k < keys.length; ++k) {
+				int i = (int)((keys[k] * UNMIX) >>> 32);
+				int j = (int)(keys[k] * UNMIX);
+				res[k] = g.containsEdge(i, j) ? Double.NaN : alg.getUncachedScore(g, i, j) + 0.;
+			}
+			return res;
+		}
+	}
+}
@@ -0,0 +1,254 @@
+package aishields.linkprediction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import aishields.core.Edge;
+import aishields.core.Graph;
+import aishields.linkprediction.algorithms.LinkPredictionAlgorithm;
+import aishields.linkprediction.algorithms.ScoreConsumer;
+
+/**
+ * Ranking quality measures of a link prediction algorithm (AUC, precision and recall at k, average precision,
+ * NDCG and ranks of probe edges), all computed from a single pass over scores of non-edges in O(|probeSet| + k)
+ * memory. For every probe edge the numbers of non-edges with higher and equal scores are counted, while the top k
+ * non-edges are kept in a heap. Ties are resolved by expected values under random ordering of tied non-edges.
+ * Probe edges that are present in the graph are ignored.
+ * 
+ * @author Marcin Waniek
+ */
+public class LinkPredictionMetrics implements ScoreConsumer {
+	
+	private boolean directed;
+	private int k;
+	private Edge[] probes;
+	private double[] probeScores;
+	private long[] higherDiff;
+	private long[] equalDiff;
+	private long[] higher;
+	private long[] equal;
+	private long nonEdges;
+	private double[] heapScores;
+	private long[] heapKeys;
+	private int heapSize;
+	
+	private LinkPredictionMetrics(Graph g, Set<Edge> probeSet, LinkPredictionAlgorithm alg, int k) {
+		this.directed = g.isDirected();
+		this.k = k;
+		this.probes = probeSet.stream().filter(e -> !g.containsEdge(e))
+				.sorted(Comparator.comparingDouble(e -> alg.getScore(g, e))).toArray(Edge[]::new);
+		this.probeScores = Arrays.stream(probes).mapToDouble(e -> alg.getScore(g, e)).toArray();
+		this.higherDiff = new long[probes.length + 1];
+		this.equalDiff = new long[probes.length + 1];
+		this.nonEdges = g.nonEdgesCount();
+		this.heapScores = new double[k];
+		this.heapKeys = new long[k];
+		this.heapSize = 0;
+	}
+	
+	/**
+	 * Computes all measures, keeping the top k non-edges.
+	 */
+	public static LinkPredictionMetrics compute(Graph g, Set<Edge> probeSet, LinkPredictionAlgorithm alg, int k) {
+		LinkPredictionMetrics res = new LinkPredictionMetrics(g, probeSet, alg, k);
+		long skipped = alg.scoreNonEdges(g, res);
+		res.acceptMultiple(skipped, 0.);
+		res.finish();
+		return res;
+	}
+	
+	@Override
+	public void accept(int i, int j, double score) {
+		acceptMultiple(1, score);
+		if (heapSize < k)
+			siftUp(heapSize++, score, Edge.key(i, j, directed));
+		else if (k > 0 && score > heapScores[0])
+			siftDown(0, score, Edge.key(i, j, directed));
+	}
+	
+	/**
+	 * Adds count non-edges with the given score to counters of all probe edges with a lower or equal score.
+	 */
+	private void acceptMultiple(long count, double score) {
+		int lower = lowerBound(score);
+		int upper = upperBound(score);
+		higherDiff[0] += count;
+		higherDiff[lower] -= count;
+		equalDiff[lower] += count;
+		equalDiff[upper] -= count;
+	}
+	
+	/**
+	 * Turns difference arrays into counts, excluding every probe edge from its own counters.
+	 */
+	private void finish() {
+		higher = new long[probes.length];
+		equal = new long[probes.length];
+		long h = 0;
+		long e = 0;
+		for (int p = 0; p < probes.length; ++p) {
+			h += higherDiff[p];
+			e += equalDiff[p];
+			higher[p] = h;
+			equal[p] = e - 1;
+		}
+	}
+	
+	public int getK() {
+		return k;
+	}
+	
+	public int getProbesCount() {
+		return probes.length;
+	}
+	
+	/**
+	 * Exact AUC, i.e., the probability that a random probe edge is scored higher than a random other non-edge.
+	 */
+	public double getAUC() {
+		long doubledSum = 0;
+		for (int p = 0; p < probes.length; ++p) {
+			int probesHigher = probes.length - upperBound(probeScores[p]);
+			int probesEqual = upperBound(probeScores[p]) - lowerBound(probeScores[p]) - 1;
+			long othersHigher = higher[p] - probesHigher;
+			long othersEqual = equal[p] - probesEqual;
+			doubledSum += 2 * (nonEdges - probes.length - othersHigher - othersEqual) + othersEqual;
+		}
+		return (doubledSum / 2.) / ((double)probes.length * (nonEdges - probes.length));
+	}
+	
+	/**
+	 * Expected position of the probe edge among all non-edges.
+	 */
+	public double getRank(Edge e) {
+		for (int p = 0; p < probes.length; ++p)
+			if (probes[p].equals(e))
+				return getRank(p);
+		return Double.NaN;
+	}
+	
+	private double getRank(int p) {
+		return higher[p] + 1 + equal[p] / 2.;
+	}
+	
+	/**
+	 * Expected number of probe edges among the top k non-edges.
+	 */
+	private double getHits() {
+		double res = 0.;
+		for (int p = 0; p < probes.length; ++p)
+			res += (double)Math.max(0, Math.min(k - higher[p], equal[p] + 1)) / (equal[p] + 1);
+		return res;
+	}
+	
+	public double getPrecisionAtK() {
+		return getHits() / k;
+	}
+	
+	public double getRecallAtK() {
+		return getHits() / probes.length;
+	}
+	
+	/**
+	 * Mean over probe edges of the precision at their position.
+	 */
+	public double getAveragePrecision() {
+		double res = 0.;
+		for (int p = 0; p < probes.length; ++p) {
+			int probesHigher = probes.length - upperBound(probeScores[p]);
+			int probesEqual = upperBound(probeScores[p]) - lowerBound(probeScores[p]) - 1;
+			res += (probesHigher + 1 + probesEqual / 2.) / getRank(p);
+		}
+		return res / probes.length;
+	}
+	
+	/**
+	 * Normalized discounted cumulative gain with all probe edges equally relevant.
+	 */
+	public double getNDCG() {
+		double dcg = 0.;
+		double idcg = 0.;
+		for (int p = 0; p < probes.length; ++p) {
+			dcg += 1. / log2(1. + getRank(p));
+			idcg += 1. / log2(2. + p);
+		}
+		return dcg / idcg;
+	}
+	
+	private static double log2(double x) {
+		return Math.log(x) / Math.log(2.);
+	}
+	
+	/**
+	 * Top k non-edges streamed by the algorithm, from the best one. For local algorithms non-edges without a common
+	 * neighbour are not included.
+	 */
+	public List<Edge> getTopPredictions() {
+		List<Edge> res = new ArrayList<>();
+		IntStream.range(0, heapSize).boxed()
+				.sorted((a, b) -> Double.compare(heapScores[b], heapScores[a]))
+				.forEach(h -> res.add(new Edge((int)(heapKeys[h] >>> 32), (int)heapKeys[h], directed)));
+		return res;
+	}
+	
+	private void siftUp(int pos, double score, long key) {
+		while (pos > 0 && heapScores[(pos - 1) / 2] > score) {
+			heapScores[pos] = heapScores[(pos - 1) / 2];
+			heapKeys[pos] = heapKeys[(pos - 1) / 2];
+			pos = (pos - 1) / 2;
+		}
+		heapScores[pos] = score;
+		heapKeys[pos] = key;
+	}
+	
+	private void siftDown(int pos, double score, long key) {
+		while (2 * pos + 1 < heapSize) {
+			int child = 2 * pos + 1;
+			if (child + 1 < heapSize && heapScores[child + 1] < heapScores[child])
+				++child;
+			if (heapScores[child] >= score)
+				break;
+			heapScores[pos] = heapScores[child];
+			heapKeys[pos] = heapKeys[child];
+			pos = child;
+		}
+		heapScores[pos] = score;
+		heapKeys[pos] = key;
+	}
+	
+	/**
+	 * Number of probe scores smaller than s.
+	 */
+	private int lowerBound(double s) {
+		int l = 0;
+		int h = probeScores.length;
+		while (l < h) {
+			int m = (l + h) / 2;
+			if (probeScores[m] < s)
+				l = m + 1;
+			else
+				h = m;
+		}
+		return l;
+	}
+	
+	/**
+	 * Number of probe scores not greater than s.
+	 */
+	private int upperBound(double s) {
+		int l = 0;
+		int h = probeScores.length;
+		while (l < h) {
+			int m = (l + h) / 2;
+			if (probeScores[m] <= s)
+				l = m + 1;
+			else
+				h = m;
+		}
+		return l;
+	}
+}
@@ -0,0 +1,157 @@
+package aishields.linkprediction;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import aishields.core.Graph;
+
+/**
+ * Random sampling of non-edges of a fixed graph, either uniformly from all non-edges, by their index in the
+ * row-major order, or uniformly from non-edges whose ends have a common neighbour, by sampling wedges.
+ * Pairs are returned packed as ((long)i << 32) | j, with i < j in undirected graphs. Safe to use from many
+ * threads as long as the graph does not change.
+ * 
+ * @author Marcin Waniek
+ */
+public class NonEdgeSampler {
+	
+	private Graph g;
+	private int[][] succs;
+	private int[][] neighs;
+	private long[] rowStarts;
+	private long[] wedgeStarts;
+	
+	public NonEdgeSampler(Graph g) {
+		this.g = g;
+		int n = g.size();
+		this.succs = new int[n][];
+		this.neighs = new int[n][];
+		this.rowStarts = new long[n + 1];
+		this.wedgeStarts = new long[n + 1];
+		for (int i = 0; i < n; ++i) {
+			succs[i] = g.getSuccsStream(i).sorted().toArray();
+			neighs[i] = g.getNeighsStream(i).sorted().toArray();
+			rowStarts[i + 1] = rowStarts[i] + (g.isDirected() ? n - 1 - succs[i].length
+					: n - 1 - i - (succs[i].length - countBelow(succs[i], i + 1)));
+			wedgeStarts[i + 1] = wedgeStarts[i] + (long)neighs[i].length * (neighs[i].length - 1);
+		}
+	}
+	
+	public static int i(long pair) {
+		return (int)(pair >>> 32);
+	}
+	
+	public static int j(long pair) {
+		return (int)pair;
+	}
+	
+	private long pair(int i, int j) {
+		if (!g.isDirected() && j < i)
+			return ((long)j << 32) | i;
+		return ((long)i << 32) | j;
+	}
+	
+	public long nonEdgesCount() {
+		return rowStarts[g.size()];
+	}
+	
+	/**
+	 * Non-edge with the given index in the row-major order.
+	 */
+	public long getNonEdge(long index) {
+		int i = upperBound(rowStarts, index) - 1;
+		long r = index - rowStarts[i];
+		int start = g.isDirected() ? 0 : i + 1;
+		int[] s = succs[i];
+		int from = countBelow(s, start);
+		// excluded values not smaller than start are succs[from..] and, in directed graphs, i itself
+		int lo = 0;
+		int hi = s.length - from + (g.isDirected() ? 1 : 0);
+		while (lo < hi) {
+			int m = (lo + hi) >>> 1;
+			if (excluded(s, from, i, m) - start - m <= r)
+				lo = m + 1;
+			else
+				hi = m;
+		}
+		return ((long)i << 32) | (int)(start + r + lo);
+	}
+	
+	/**
+	 * The m-th smallest excluded value in a row, among successors starting from position from, and i itself in
+	 * directed graphs.
+	 */
+	private int excluded(int[] s, int from, int i, int m) {
+		if (!g.isDirected())
+			return s[from + m];
+		int below = countBelow(s, i);
+		if (m < below)
+			return s[m];
+		else if (m == below)
+			return i;
+		return s[m - 1];
+	}
+	
+	public long sampleNonEdge(SplittableRandom rand) {
+		return getNonEdge(rand.nextLong(nonEdgesCount()));
+	}
+	
+	/**
+	 * Uniformly random non-edge whose ends have a common neighbour, or -1 if there are none. A wedge i - k - j is
+	 * sampled uniformly and accepted with probability inverse to the number of common neighbours of i and j.
+	 */
+	public long sampleTwoHopNonEdge(SplittableRandom rand) {
+		if (wedgeStarts[g.size()] == 0)
+			return -1;
+		while (true) {
+			int k = upperBound(wedgeStarts, rand.nextLong(wedgeStarts[g.size()])) - 1;
+			int a = rand.nextInt(neighs[k].length);
+			int b = rand.nextInt(neighs[k].length - 1);
+			int i = neighs[k][a];
+			int j = neighs[k][b < a ? b : b + 1];
+			if (!g.containsEdge(i, j) && rand.nextInt(getCommonNeighsCount(i, j)) == 0)
+				return pair(i, j);
+		}
+	}
+	
+	public int getCommonNeighsCount(int i, int j) {
+		int[] a = neighs[i];
+		int[] b = neighs[j];
+		int res = 0;
+		for (int pa = 0, pb = 0; pa < a.length && pb < b.length;)
+			if (a[pa] < b[pb])
+				++pa;
+			else if (a[pa] > b[pb])
+				++pb;
+			else {
+				++res;
+				++pa;
+				++pb;
+			}
+		return res;
+	}
+	
+	/**
+	 * Number of values in the sorted array smaller than v.
+	 */
+	private static int countBelow(int[] a, int v) {
+		int pos = Arrays.binarySearch(a, v);
+		return pos >= 0 ? pos : -pos - 1;
+	}
+	
+	/**
+	 * Number of values in the sorted array not greater than v.
+	 */
+	private static int upperBound(long[] a, long v) {
+		int l = 0;
+		int h = a.length;
+		while (l < h) {
+			int m = (l + h) >>> 1;
+			if (a[m] <= v)
+				l = m + 1;
+			else
+				h = m;
+		}
+		return l;
+	}
+}
@@ -0,0 +1,153 @@
+package aishields.linkprediction;
+
+import java.util.Arrays;
+
+/**
+ * Immutable distribution of scores of non-edges, stored as distinct scores in ascending order together with
+ * cumulative counts in primitive arrays, so that it takes memory proportional to the number of distinct scores
+ * rather than to the number of non-edges, can be shared between threads, and counts scores higher than or equal
+ * to a given one in logarithmic time. Counts may be negative, so that a distribution can also store changes of
+ * another one, i.e., scores removed from it and added to it.
+ *
+ * @author Marcin Waniek
+ */
+public class ScoreDistribution {
+
+	public static final ScoreDistribution EMPTY = new ScoreDistribution(new double[0], new long[0]);
+
+	private double[] values;
+	private long[] atMost;
+
+	private ScoreDistribution(double[] values, long[] atMost) {
+		this.values = values;
+		this.atMost = atMost;
+	}
+
+	/**
+	 * Changes that remove the given scores and add the given scores, skipping NaN scores on both sides.
+	 */
+	public static ScoreDistribution ofChanges(double[] removed, double[] added) {
+		double[] rem = Arrays.stream(removed).filter(s -> !Double.isNaN(s)).sorted().toArray();
+		double[] add = Arrays.stream(added).filter(s -> !Double.isNaN(s)).sorted().toArray();
+		return ofSorted(rem, rem.length, -1).plus(ofSorted(add, add.length, 1));
+	}
+
+	/**
+	 * Distribution of the first length of the given sorted scores, each counted sign times.
+	 */
+	private static ScoreDistribution ofSorted(double[] sorted, int length, int sign) {
+		int distinct = 0;
+		for (int k = 0; k < length; ++k)
+			if (k == 0 || sorted[k] != sorted[k - 1])
+				++distinct;
+		double[] values = new double[distinct];
+		long[] atMost = new long[distinct];
+		int d = -1;
+		for (int k = 0; k < length; ++k) {
+			if (k == 0 || sorted[k] != sorted[k - 1]) {
+				values[++d] = sorted[k] + 0.;
+				atMost[d] = d == 0 ? 0 : atMost[d - 1];
+			}
+			atMost[d] += sign;
+		}
+		return new ScoreDistribution(values, atMost);
+	}
+
+	public long size() {
+		return atMost.length == 0 ? 0 : atMost[atMost.length - 1];
+	}
+
+	public int distinctCount() {
+		return values.length;
+	}
+
+	/**
+	 * Number of scores greater than s.
+	 */
+	public long countHigher(double s) {
+		int lo = 0;
+		int hi = values.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (values[mid] > s)
+				hi = mid;
+			else
+				lo = mid + 1;
+		}
+		return size() - (lo == 0 ? 0 : atMost[lo - 1]);
+	}
+
+	/**
+	 * Number of scores equal to s.
+	 */
+	public long countEqual(double s) {
+		int k = Arrays.binarySearch(values, s + 0.);
+		return k < 0 ? 0 : count(k);
+	}
+
+	private long count(int k) {
+		return atMost[k] - (k == 0 ? 0 : atMost[k - 1]);
+	}
+
+	/**
+	 * Distribution with the scores of both distributions, leaving out scores whose counts add up to 0.
+	 */
+	public ScoreDistribution plus(ScoreDistribution other) {
+		if (other.values.length == 0)
+			return this;
+		if (values.length == 0)
+			return other;
+		double[] resValues = new double[values.length + other.values.length];
+		long[] resAtMost = new long[resValues.length];
+		int distinct = 0;
+		long total = 0;
+		for (int a = 0, b = 0; a < values.length || b < other.values.length;) {
+			double value = b == other.values.length || a < values.length && values[a] < other.values[b]
+					? values[a] : other.values[b];
+			long count = 0;
+			if (a < values.length && values[a] == value)
+				count += count(a++);
+			if (b < other.values.length && other.values[b] == value)
+				count += other.count(b++);
+			if (count != 0) {
+				total += count;
+				resValues[distinct] = value;
+				resAtMost[distinct++] = total;
+			}
+		}
+		return new ScoreDistribution(Arrays.copyOf(resValues, distinct), Arrays.copyOf(resAtMost, distinct));
+	}
+
+	/**
+	 * Scores added one by one, all of which are kept until the distribution is built.
+	 */
+	public static class Builder {
+
+		private double[] scores;
+		private int count;
+
+		public Builder() {
+			this.scores = new double[16];
+			this.count = 0;
+		}
+
+		public void add(double score) {
+			if (count == scores.length)
+				scores = Arrays.copyOf(scores, 2 * count);
+			scores[count++] = score + 0.;
+		}
+
+		public int size() {
+			return count;
+		}
+
+		/**
+		 * Distribution of the added scores together with the given number of implicit scores 0.
+		 */
+		public ScoreDistribution build(long zeros) {
+			Arrays.sort(scores, 0, count);
+			ScoreDistribution res = ofSorted(scores, count, 1);
+			return res.plus(new ScoreDistribution(new double[] {0.}, new long[] {zeros}));
+		}
+	}
+}
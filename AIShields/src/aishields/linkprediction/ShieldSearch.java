@@ -0,0 +1,148 @@
+package aishields.linkprediction;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import aishields.core.Edge;
+import aishields.core.Graph;
+import aishields.linkprediction.algorithms.LinkPredictionAlgorithm;
+
+/**
+ * Search over subsets of edge flips that hide a probe set from a group of link prediction algorithms.
+ * Subsets are walked depth-first in the lexicographic order of {@link aishields.utils.Utils#sublistsOfSize},
+ * so consecutive subsets share all edges but the last ones and every step flips a single edge of the graph,
+ * with AUCs of all algorithms updated incrementally. Best AUCs are memoised by the fingerprint of the graph, shared
+ * by all searches, so configurations reached again, e.g., by different optimisers, are not evaluated twice.
+ * AUCs of every algorithm are memoised in the same way for single flips evaluated with {@link #evaluateFlipAUCs},
+ * and reused whenever the configuration they lead to is evaluated again.
+ *
+ * @author Marcin Waniek
+ */
+public class ShieldSearch {
+
+	private static final EvaluationCache<Double> BEST_AUCS = new EvaluationCache<>();
+	private static final EvaluationCache<double[]> ALG_AUCS = new EvaluationCache<>(1 << 18);
+
+	private Graph g;
+	private EvaluationCache.Context context;
+	private List<IncrementalAUC> aucs;
+
+	public ShieldSearch(Graph g, Set<Edge> probeSet, List<LinkPredictionAlgorithm> algs) {
+		this.g = g;
+		this.context = new EvaluationCache.Context(probeSet, algs);
+		this.aucs = algs.stream().map(alg -> AreaUnderROCCurve.createIncremental(g, probeSet, alg))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Search in a copy of the graph of the shared search, made in its current state, sharing its scores of
+	 * non-edges, so that searches in many copies of a large graph do not multiply the memory they take.
+	 */
+	public ShieldSearch(Graph g, ShieldSearch shared) {
+		this.g = g;
+		this.context = shared.context;
+		this.aucs = shared.aucs.stream().map(auc -> new IncrementalAUC(g, auc)).collect(Collectors.toList());
+	}
+
+	/**
+	 * Best AUC among all algorithms.
+	 */
+	public double getBestAUC() {
+		return BEST_AUCS.get(context, g,
+				() -> aucs.stream().mapToDouble(auc -> auc.getAUC()).max().getAsDouble());
+	}
+
+	/**
+	 * AUC of every algorithm, in the order of algorithms.
+	 */
+	public double[] getAUCs() {
+		return aucs.stream().mapToDouble(auc -> auc.getAUC()).toArray();
+	}
+	
+	/**
+	 * Best AUC among all algorithms after flipping the edge e, leaving the graph unchanged.
+	 */
+	public double evaluateFlip(Edge e) {
+		long fp = g.getFingerprintAfterSwap(e.i(), e.j());
+		return BEST_AUCS.get(context, g, fp, () -> {
+			double[] res = ALG_AUCS.get(context, g, fp);
+			return max(res != null ? res : IncrementalAUC.computeFlipAUCs(aucs, e.i(), e.j()));
+		});
+	}
+	
+	/**
+	 * AUC of every algorithm after flipping the edge e, in the order of algorithms, leaving the graph unchanged.
+	 * The returned array should not be modified.
+	 */
+	public double[] evaluateFlipAUCs(Edge e) {
+		long fp = g.getFingerprintAfterSwap(e.i(), e.j());
+		double[] res = ALG_AUCS.get(context, g, fp, () -> IncrementalAUC.computeFlipAUCs(aucs, e.i(), e.j()));
+		BEST_AUCS.put(context, g, fp, max(res));
+		return res;
+	}
+
+	/**
+	 * Flips the edge e in the graph, returning the best AUC among all algorithms afterwards.
+	 */
+	public double applyFlip(Edge e) {
+		double res = max(IncrementalAUC.applyFlip(aucs, e.i(), e.j()));
+		BEST_AUCS.put(context, g, g.getFingerprint(), res);
+		return res;
+	}
+
+	/**
+	 * Best AUC among all algorithms after flipping every subset of options of the given size, leaving the graph
+	 * unchanged. Subsets are returned in the order of {@link aishields.utils.Utils#sublistsOfSize}.
+	 */
+	public Map<List<Edge>, Double> evaluateSubsets(List<Edge> options, int size) {
+		Map<List<Edge>, Double> res = new LinkedHashMap<>();
+		if (size == 0)
+			res.put(new ArrayList<>(), getBestAUC());
+		else if (size <= options.size())
+			search(options, size, 0, options.size(), new ArrayList<>(), res);
+		return res;
+	}
+	
+	/**
+	 * Best AUC among all algorithms after flipping every subset of options of the given size whose first option
+	 * is the one with the given index, leaving the graph unchanged. Subsets are returned in the order of
+	 * {@link aishields.utils.Utils#sublistsOfSize}, so that the results for consecutive indices, e.g., computed
+	 * by different workers, together form the result of {@link #evaluateSubsets}.
+	 */
+	public Map<List<Edge>, Double> evaluateSubsetsStartingWith(List<Edge> options, int size, int first) {
+		Map<List<Edge>, Double> res = new LinkedHashMap<>();
+		if (size > 0)
+			search(options, size, first, first + 1, new ArrayList<>(), res);
+		return res;
+	}
+
+	/**
+	 * Extends the prefix with options of indices from start (inclusive) to end (exclusive).
+	 */
+	private void search(List<Edge> options, int size, int start, int end, List<Edge> prefix,
+			Map<List<Edge>, Double> res) {
+		for (int i = start; i < end && i <= options.size() - size + prefix.size(); ++i) {
+			Edge e = options.get(i);
+			prefix.add(e);
+			if (prefix.size() == size)
+				res.put(new ArrayList<>(prefix), evaluateFlip(e));
+			else {
+				IncrementalAUC.applyFlip(aucs, e.i(), e.j());
+				search(options, size, i + 1, options.size(), prefix, res);
+				IncrementalAUC.applyFlip(aucs, e.i(), e.j());
+			}
+			prefix.remove(prefix.size() - 1);
+		}
+	}
+
+	private static double max(double[] values) {
+		double res = Double.NEGATIVE_INFINITY;
+		for (double v : values)
+			res = Math.max(res, v);
+		return res;
+	}
+}
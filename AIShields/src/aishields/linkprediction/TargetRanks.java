@@ -0,0 +1,143 @@
+package aishields.linkprediction;
+
+import java.util.List;
+
+import aishields.core.Edge;
+import aishields.core.Graph;
+import aishields.linkprediction.algorithms.LinkPredictionAlgorithm;
+import aishields.linkprediction.algorithms.ScoreConsumer;
+
+/**
+ * Positions of a few target non-edges among all other non-edges, obtained in a single counting pass over scores.
+ * For every target it stores the number of other non-edges with higher, equal and lower score.
+ * 
+ * @author Marcin Waniek
+ */
+public class TargetRanks implements ScoreConsumer {
+	
+	private boolean directed;
+	private long[] keys;
+	private double[] scores;
+	private long[] higher;
+	private long[] equal;
+	private long[] lower;
+	private long others;
+	private int streamedTargets;
+	private double minAUC;
+	private boolean pruned;
+	
+	protected TargetRanks(Graph g, List<Edge> targets, LinkPredictionAlgorithm alg, double minAUC) {
+		this.directed = g.isDirected();
+		this.keys = targets.stream().mapToLong(e -> e.key()).toArray();
+		this.scores = targets.stream().mapToDouble(e -> alg.getScore(g, e)).toArray();
+		this.higher = new long[targets.size()];
+		this.equal = new long[targets.size()];
+		this.lower = new long[targets.size()];
+		this.others = g.nonEdgesCount() - targets.size();
+		this.streamedTargets = 0;
+		this.minAUC = minAUC;
+		this.pruned = false;
+	}
+	
+	public int size() {
+		return keys.length;
+	}
+	
+	public double getScore(int k) {
+		return scores[k];
+	}
+	
+	public long getHigherCount(int k) {
+		return higher[k];
+	}
+	
+	public long getEqualCount(int k) {
+		return equal[k];
+	}
+	
+	public long getLowerCount(int k) {
+		return lower[k];
+	}
+	
+	/**
+	 * Whether counting stopped early because the AUC could not reach the required minimum.
+	 * In such case AUC values are upper bounds of the real ones.
+	 */
+	public boolean isPruned() {
+		return pruned;
+	}
+	
+	/**
+	 * Highest position of the k-th target among other non-edges.
+	 */
+	public long getRank(int k) {
+		return higher[k] + 1;
+	}
+	
+	/**
+	 * Average position of the k-th target among other non-edges with the same score.
+	 */
+	public double getAvgRank(int k) {
+		return higher[k] + 1 + (double)equal[k] / 2;
+	}
+	
+	public double getAUC(int k) {
+		if (pruned)
+			return getAUCUpperBound(k);
+		return (lower[k] + (double)equal[k] / 2) / others;
+	}
+	
+	/**
+	 * AUC of the set of all targets.
+	 */
+	public double getAUC() {
+		double res = 0.;
+		for (int k = 0; k < size(); ++k)
+			res += getAUC(k);
+		return res / size();
+	}
+	
+	private double getAUCUpperBound(int k) {
+		return (others - higher[k] - (double)equal[k] / 2) / others;
+	}
+	
+	@Override
+	public void accept(int i, int j, double score) {
+		long key = Edge.key(i, j, directed);
+		for (int k = 0; k < keys.length; ++k)
+			if (keys[k] == key) {
+				++streamedTargets;
+				return;
+			}
+		acceptMultiple(1, score);
+		if (minAUC > Double.NEGATIVE_INFINITY) {
+			double bound = 0.;
+			for (int k = 0; k < size(); ++k)
+				bound += getAUCUpperBound(k);
+			pruned = bound / size() < minAUC;
+		}
+	}
+	
+	@Override
+	public boolean isDone() {
+		return pruned;
+	}
+	
+	/**
+	 * Counts non-edges skipped by the algorithm, all of which have score 0.
+	 */
+	protected void acceptSkipped(long skipped) {
+		if (!pruned)
+			acceptMultiple(skipped - (keys.length - streamedTargets), 0.);
+	}
+	
+	private void acceptMultiple(long count, double score) {
+		for (int k = 0; k < keys.length; ++k)
+			if (score > scores[k])
+				higher[k] += count;
+			else if (score == scores[k])
+				equal[k] += count;
+			else
+				lower[k] += count;
+	}
+}
@@ -1,24 +1,21 @@
 package aishields.linkprediction.algorithms;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.function.Predicate;
 
 import aishields.core.Edge;
 import aishields.core.Graph;
-import aishields.core.GraphChangeListener;
 import aishields.core.LimitedMemoryRanking;
 import aishields.core.Ranking;
+import aishields.core.SparseRanking;
 
 /**
  * Representation of a link prediction algorithm.
+ * Algorithms are stateless, computed scores are stored in a {@link ScoreCache}, so a single instance can be shared
+ * between threads working on different graphs.
  * 
  * @author Marcin Waniek
  */
-public abstract class LinkPredictionAlgorithm implements GraphChangeListener {
-
-	protected Graph lastGraph;
-	protected Map<Edge,Double> scores;
+public abstract class LinkPredictionAlgorithm {
 	
 	public abstract String getName();
 	
@@ -36,6 +33,44 @@ public abstract class LinkPredictionAlgorithm implements GraphChangeListener {
 		return res;
 	}
 	
+	/**
+	 * Ranking of non-edges in which, for local algorithms, only non-edges with a common neighbour are stored
+	 * explicitly, and the remaining ones form an implicit block of zero scores.
+	 */
+	public SparseRanking<Edge> getCandidateNonEdgesRanking(Graph g){
+		SparseRanking<Edge> res = new SparseRanking<>(0.);
+		if (isLocal()) {
+			g.forEachTwoHopNonEdge((i, j) -> res.setScore(g.e(i, j), getScore(g, i, j)));
+			res.setImplicitCount(g.nonEdgesCount() - res.size());
+		} else
+			addNonEdges(g, res);
+		return res;
+	}
+	
+	/**
+	 * Streams scores of non-edges, each computed once and not cached. For local algorithms non-edges without a common
+	 * neighbour are skipped. Streaming stops early once the consumer is done.
+	 * 
+	 * @return number of skipped non-edges, all of which have score 0
+	 */
+	public long scoreNonEdges(Graph g, ScoreConsumer c){
+		if (isLocal()) {
+			long[] streamed = new long[1];
+			g.forEachTwoHopNonEdge((i, j) -> {
+				if (!c.isDone()) {
+					c.accept(i, j, computeScore(g, i, j));
+					++streamed[0];
+				}
+			});
+			return g.nonEdgesCount() - streamed[0];
+		}
+		for (int i = 0; i < g.size() && !c.isDone(); ++i)
+			for (int j = g.isDirected() ? 0 : i + 1; j < g.size(); ++j)
+				if (i != j && !g.containsEdge(i, j))
+					c.accept(i, j, computeScore(g, i, j));
+		return 0;
+	}
+	
 	public Ranking<Edge> getEdgesRanking(Graph g){
 		Ranking<Edge> res = new Ranking<>();
 		addEdges(g, res);
@@ -67,35 +102,31 @@ public abstract class LinkPredictionAlgorithm implements GraphChangeListener {
 	public double getScore(Graph g, int i, int j){
 		if (i == j || g.containsEdge(i, j))
 			return 0.;
-		if (g != lastGraph && lastGraph != null)
-			lastGraph.unsubscribe(this);
-		if (g != lastGraph || scores == null) {
-			lastGraph = g;
-			g.subscribe(this);
-			scores = new HashMap<>();
-		}
-		if (!scores.containsKey(g.e(i, j)))
-			scores.put(g.e(i, j), computeScore(g, i, j));
-		return scores.get(g.e(i, j));
+		return getScoreCache().getScore(this, g, i, j);
 	}
 	
 	public double getScore(Graph g, Edge e){
 		return getScore(g, e.i(), e.j());
 	}
 	
-	@Override
-	public void notifyAdd(Graph g, Edge e) {
-		scores = null;	
+	/**
+	 * Score computed without storing it in the cache, for pairs scored only once in a given version of the graph.
+	 */
+	public double getUncachedScore(Graph g, int i, int j){
+		if (i == j || g.containsEdge(i, j))
+			return 0.;
+		return computeScore(g, i, j);
 	}
 	
-	@Override
-	public void notifyRemove(Graph g, Edge e) {
-		scores = null;
+	protected ScoreCache getScoreCache(){
+		return ScoreCache.getShared();
 	}
 	
-	@Override
-	public void notifyReset(Graph g) {
-		scores = null;
+	/**
+	 * Whether scores depend only on common neighbours, i.e., pairs without common neighbours get score 0.
+	 */
+	public boolean isLocal() {
+		return isLocal(getName());
 	}
 	
 	public static boolean isLocal(String name) {
@@ -103,4 +134,15 @@ public abstract class LinkPredictionAlgorithm implements GraphChangeListener {
 				|| name.equals("hubPromoted") || name.equals("jaccard") || name.equals("leichtHolmeNewman")
 				|| name.equals("resourceAllocation") || name.equals("salton") || name.equals("sorensen");
 	}
+	
+	/**
+	 * Whether scores of a local algorithm also depend on degrees of common neighbours.
+	 */
+	public boolean isDegreeWeighted() {
+		return isDegreeWeighted(getName());
+	}
+	
+	public static boolean isDegreeWeighted(String name) {
+		return name.equals("adamicAdar") || name.equals("resourceAllocation");
+	}
 }
@@ -0,0 +1,214 @@
+package aishields.linkprediction.algorithms;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+import aishields.core.Edge;
+import aishields.core.Graph;
+import aishields.core.GraphChangeListener;
+
+/**
+ * Bottom-k sketches of the neighbourhoods of all nodes of a graph, allowing to estimate the Jaccard similarity of
+ * two neighbourhoods in O(k) time and memory fixed per node. Sketches are computed in parallel, shared per graph
+ * and sketch size, and patched on every change of the graph.
+
+@inproceedings{cohen2007summarizing,
+  title={Summarizing data using bottom-k sketches},
+  author={Cohen, Edith and Kaplan, Haim},
+  booktitle={Proceedings of the twenty-sixth annual ACM symposium on Principles of distributed computing},
+  pages={225--234},
+  year={2007}
+}
+
+ * @author Marcin Waniek
+ */
+public class NeighbourhoodSketches implements GraphChangeListener {
+
+	private static final int MAX_SKETCHES = 64;
+	private static final long SEED = 0x5DEECE66DL;
+	private static final ConcurrentHashMap<Graph, ConcurrentHashMap<Integer, NeighbourhoodSketches>> SKETCHES =
+			new ConcurrentHashMap<>();
+	private static final ConcurrentLinkedQueue<Graph> INSERTION_ORDER = new ConcurrentLinkedQueue<>();
+
+	private int k;
+	private long version;
+	private long[][] sketches;
+	private int[] lengths;
+	private boolean[] complete;
+
+	public NeighbourhoodSketches(Graph g, int k) {
+		this.k = k;
+		this.sketches = new long[g.size()][k];
+		this.lengths = new int[g.size()];
+		this.complete = new boolean[g.size()];
+		rebuild(g);
+	}
+
+	/**
+	 * Returns sketches of size k for the current version of the graph.
+	 */
+	public static NeighbourhoodSketches of(Graph g, int k) {
+		ConcurrentHashMap<Integer, NeighbourhoodSketches> bySize = SKETCHES.get(g);
+		if (bySize == null) {
+			bySize = SKETCHES.computeIfAbsent(g, gr -> {
+				INSERTION_ORDER.add(gr);
+				return new ConcurrentHashMap<>();
+			});
+			while (SKETCHES.size() > MAX_SKETCHES) {
+				Graph oldest = INSERTION_ORDER.poll();
+				if (oldest == null)
+					break;
+				ConcurrentHashMap<Integer, NeighbourhoodSketches> removed = SKETCHES.remove(oldest);
+				if (removed != null)
+					removed.values().forEach(s -> oldest.unsubscribe(s));
+			}
+		}
+		NeighbourhoodSketches res = bySize.computeIfAbsent(k, size -> {
+			NeighbourhoodSketches s = new NeighbourhoodSketches(g, size);
+			g.subscribe(s);
+			return s;
+		});
+		res.ensureVersion(g);
+		return res;
+	}
+
+	public int getSketchSize() {
+		return k;
+	}
+
+	/**
+	 * Estimates the Jaccard similarity of the neighbourhoods of i and j.
+	 */
+	public double estimateJaccard(int i, int j) {
+		long counts = mergeCounts(i, j);
+		int union = (int)(counts >>> 32);
+		int common = (int)counts;
+		return union == 0 ? 0. : (double)common / union;
+	}
+
+	/**
+	 * Standard error of the estimate of the Jaccard similarity of the neighbourhoods of i and j,
+	 * equal to zero if the estimate is exact.
+	 */
+	public double getJaccardStandardError(int i, int j) {
+		long counts = mergeCounts(i, j);
+		int union = (int)(counts >>> 32);
+		if (union == 0 || (complete[i] && complete[j] && union < k))
+			return 0.;
+		double jac = (double)(int)counts / union;
+		return Math.sqrt(jac * (1. - jac) / union);
+	}
+
+	/**
+	 * Merges sketches of i and j into the bottom-k sketch of the union of their neighbourhoods.
+	 * Returns the size of the merged sketch and the number of its elements present in both sketches.
+	 */
+	private long mergeCounts(int i, int j) {
+		long[] a = sketches[i];
+		long[] b = sketches[j];
+		int la = lengths[i];
+		int lb = lengths[j];
+		int pa = 0;
+		int pb = 0;
+		int union = 0;
+		int common = 0;
+		while (union < k && (pa < la || pb < lb)) {
+			if (pb >= lb || (pa < la && a[pa] < b[pb]))
+				++pa;
+			else if (pa >= la || b[pb] < a[pa])
+				++pb;
+			else {
+				++common;
+				++pa;
+				++pb;
+			}
+			++union;
+		}
+		return ((long)union << 32) | common;
+	}
+
+	private static long hash(int v) {
+		long z = v + SEED;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return (z ^ (z >>> 31)) >>> 1;
+	}
+
+	private synchronized void ensureVersion(Graph g) {
+		if (version != g.getVersion())
+			rebuild(g);
+	}
+
+	private void rebuild(Graph g) {
+		IntStream.range(0, g.size()).parallel().forEach(i -> rebuildNode(g, i));
+		version = g.getVersion();
+	}
+
+	private void rebuildNode(Graph g, int i) {
+		long[] hashes = g.getNeighsStream(i).mapToLong(j -> hash(j)).sorted().toArray();
+		lengths[i] = Math.min(k, hashes.length);
+		System.arraycopy(hashes, 0, sketches[i], 0, lengths[i]);
+		complete[i] = hashes.length <= k;
+	}
+
+	private void insert(Graph g, int i, int j) {
+		long h = hash(j);
+		long[] s = sketches[i];
+		int pos = Arrays.binarySearch(s, 0, lengths[i], h);
+		if (pos >= 0)
+			return;
+		pos = -pos - 1;
+		if (pos < k) {
+			int len = Math.min(lengths[i], k - 1);
+			System.arraycopy(s, pos, s, pos + 1, len - pos);
+			s[pos] = h;
+			lengths[i] = len + 1;
+		}
+		complete[i] = g.getNeighs(i).size() <= k;
+	}
+
+	private void remove(Graph g, int i, int j) {
+		long h = hash(j);
+		long[] s = sketches[i];
+		int pos = Arrays.binarySearch(s, 0, lengths[i], h);
+		if (pos < 0)
+			complete[i] = g.getNeighs(i).size() <= k;
+		else if (!complete[i])
+			rebuildNode(g, i);
+		else {
+			System.arraycopy(s, pos + 1, s, pos, lengths[i] - pos - 1);
+			--lengths[i];
+		}
+	}
+
+	private synchronized void patch(Graph g, Edge e, boolean added) {
+		if (version + 1 == g.getVersion()) {
+			if (added) {
+				insert(g, e.i(), e.j());
+				insert(g, e.j(), e.i());
+			} else if (!g.getNeighs(e.i()).contains(e.j())) {
+				remove(g, e.i(), e.j());
+				remove(g, e.j(), e.i());
+			}
+			version = g.getVersion();
+		} else
+			rebuild(g);
+	}
+
+	@Override
+	public void notifyAdd(Graph g, Edge e) {
+		patch(g, e, true);
+	}
+
+	@Override
+	public void notifyRemove(Graph g, Edge e) {
+		patch(g, e, false);
+	}
+
+	@Override
+	public void notifyReset(Graph g) {
+		ensureVersion(g);
+	}
+}
@@ -0,0 +1,112 @@
+package aishields.linkprediction.algorithms;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import aishields.core.Edge;
+import aishields.core.Graph;
+import aishields.core.GraphChangeListener;
+
+/**
+ * Per-node features of a graph (degree, inverse of degree and inverse of logarithm of degree) used by weighted
+ * local link prediction indices. Tables are shared per graph, patched on every change of the graph and rebuilt
+ * if the graph has been modified in an untracked way.
+ *
+ * @author Marcin Waniek
+ */
+public class NodeFeatureTable implements GraphChangeListener {
+
+	private static final int MAX_TABLES = 256;
+	private static final ConcurrentHashMap<Graph, NodeFeatureTable> TABLES = new ConcurrentHashMap<>();
+	private static final ConcurrentLinkedQueue<Graph> INSERTION_ORDER = new ConcurrentLinkedQueue<>();
+
+	private long version;
+	private int[] degree;
+	private double[] invDegree;
+	private double[] invLogDegree;
+
+	private NodeFeatureTable(Graph g) {
+		this.degree = new int[g.size()];
+		this.invDegree = new double[g.size()];
+		this.invLogDegree = new double[g.size()];
+		rebuild(g);
+	}
+
+	/**
+	 * Returns the table for the current version of the graph.
+	 */
+	public static NodeFeatureTable of(Graph g) {
+		NodeFeatureTable res = TABLES.get(g);
+		if (res == null) {
+			res = TABLES.computeIfAbsent(g, gr -> {
+				NodeFeatureTable t = new NodeFeatureTable(gr);
+				gr.subscribe(t);
+				INSERTION_ORDER.add(gr);
+				return t;
+			});
+			while (TABLES.size() > MAX_TABLES) {
+				Graph oldest = INSERTION_ORDER.poll();
+				if (oldest == null)
+					break;
+				NodeFeatureTable t = TABLES.remove(oldest);
+				if (t != null)
+					oldest.unsubscribe(t);
+			}
+		}
+		res.ensureVersion(g);
+		return res;
+	}
+
+	public int getDegree(int i) {
+		return degree[i];
+	}
+
+	public double getInverseDegree(int i) {
+		return invDegree[i];
+	}
+
+	public double getInverseLogDegree(int i) {
+		return invLogDegree[i];
+	}
+
+	private synchronized void ensureVersion(Graph g) {
+		if (version != g.getVersion())
+			rebuild(g);
+	}
+
+	private void rebuild(Graph g) {
+		for (int i = 0; i < g.size(); ++i)
+			update(g, i);
+		version = g.getVersion();
+	}
+
+	private void update(Graph g, int i) {
+		degree[i] = g.getDegree(i);
+		invDegree[i] = 1. / degree[i];
+		invLogDegree[i] = 1. / Math.log(degree[i]);
+	}
+
+	private synchronized void patch(Graph g, Edge e) {
+		if (version + 1 == g.getVersion()) {
+			update(g, e.i());
+			update(g, e.j());
+			version = g.getVersion();
+		} else
+			rebuild(g);
+	}
+
+	@Override
+	public void notifyAdd(Graph g, Edge e) {
+		patch(g, e);
+	}
+
+	@Override
+	public void notifyRemove(Graph g, Edge e) {
+		patch(g, e);
+	}
+
+	@Override
+	public void notifyReset(Graph g) {
+		ensureVersion(g);
+	}
+}
@@ -0,0 +1,198 @@
+package aishields.linkprediction.algorithms;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import aishields.core.Edge;
+import aishields.core.Graph;
+
+/**
+ * Thread-safe cache of link prediction scores, kept outside of the algorithm objects.
+ * Scores are stored per (algorithm, graph) pair and discarded whenever the version of the graph changes.
+ *
+ * @author Marcin Waniek
+ */
+public class ScoreCache {
+
+	public static final int DEFAULT_MAX_TABLES = 256;
+	public static final int DEFAULT_MAX_SCORES = 1 << 20;
+	private static final int SEGMENTS = 16;
+
+	private static final ScoreCache SHARED = new ScoreCache(DEFAULT_MAX_TABLES, DEFAULT_MAX_SCORES);
+
+	private int maxTables;
+	private int maxScores;
+	private ConcurrentHashMap<Key, Table> tables;
+	private ConcurrentLinkedQueue<Key> insertionOrder;
+
+	/**
+	 * @param maxTables maximal number of (algorithm, graph) pairs for which scores are kept
+	 * @param maxScores maximal number of scores kept for a single (algorithm, graph) pair
+	 */
+	public ScoreCache(int maxTables, int maxScores) {
+		this.maxTables = maxTables;
+		this.maxScores = maxScores;
+		this.tables = new ConcurrentHashMap<>();
+		this.insertionOrder = new ConcurrentLinkedQueue<>();
+	}
+
+	public static ScoreCache getShared() {
+		return SHARED;
+	}
+
+	public double getScore(LinkPredictionAlgorithm alg, Graph g, int i, int j) {
+		Table t = getTable(alg, g);
+		long key = Edge.key(i, j, g.isDirected());
+		Segment s = t.segments[Long.hashCode(key * 0x9E3779B97F4A7C15L) & (SEGMENTS - 1)];
+		synchronized (s) {
+			int pos = s.find(key);
+			if (pos >= 0)
+				return s.vals[pos];
+		}
+		double res = alg.computeScore(g, i, j);
+		synchronized (s) {
+			s.put(key, res);
+		}
+		return res;
+	}
+
+	public int size() {
+		return tables.values().stream().mapToInt(t -> t.size()).sum();
+	}
+
+	public void clear() {
+		tables.clear();
+		insertionOrder.clear();
+	}
+
+	private Table getTable(LinkPredictionAlgorithm alg, Graph g) {
+		Key key = new Key(alg, g);
+		long version = g.getVersion();
+		Table t = tables.get(key);
+		if (t == null || t.version != version) {
+			boolean isNew = t == null;
+			t = tables.compute(key, (k, old) -> old == null || old.version != version ? new Table(version) : old);
+			if (isNew) {
+				insertionOrder.add(key);
+				while (tables.size() > maxTables) {
+					Key oldest = insertionOrder.poll();
+					if (oldest == null)
+						break;
+					tables.remove(oldest);
+				}
+			}
+		}
+		return t;
+	}
+
+	private static class Key {
+
+		private LinkPredictionAlgorithm alg;
+		private Graph g;
+
+		public Key(LinkPredictionAlgorithm alg, Graph g) {
+			this.alg = alg;
+			this.g = g;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (o == null || !(o instanceof Key))
+				return false;
+			Key k = (Key)o;
+			return alg == k.alg && g == k.g;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(alg) + System.identityHashCode(g);
+		}
+	}
+
+	private class Table {
+
+		private long version;
+		private Segment[] segments;
+
+		public Table(long version) {
+			this.version = version;
+			this.segments = new Segment[SEGMENTS];
+			for (int i = 0; i < SEGMENTS; ++i)
+				this.segments[i] = new Segment(Math.max(1, maxScores / SEGMENTS));
+		}
+
+		public int size() {
+			int res = 0;
+			for (Segment s : segments)
+				synchronized (s) {
+					res += s.size;
+				}
+			return res;
+		}
+	}
+
+	/**
+	 * Open addressing map from primitive keys to primitive values, emptied when it exceeds its capacity.
+	 */
+	private static class Segment {
+
+		private static final long EMPTY = -1L;
+
+		private int capacity;
+		private int size;
+		private long[] keys;
+		private double[] vals;
+
+		public Segment(int capacity) {
+			this.capacity = capacity;
+			this.size = 0;
+			allocate(16);
+		}
+
+		private void allocate(int length) {
+			keys = new long[length];
+			vals = new double[length];
+			Arrays.fill(keys, EMPTY);
+		}
+
+		private int slot(long key) {
+			return (int)((key * 0x9E3779B97F4A7C15L) >>> 32) & (keys.length - 1);
+		}
+
+		public int find(long key) {
+			for (int pos = slot(key); keys[pos] != EMPTY; pos = (pos + 1) & (keys.length - 1))
+				if (keys[pos] == key)
+					return pos;
+			return -1;
+		}
+
+		public void put(long key, double val) {
+			if (size >= capacity) {
+				size = 0;
+				allocate(16);
+			} else if (2 * (size + 1) > keys.length) {
+				long[] oldKeys = keys;
+				double[] oldVals = vals;
+				allocate(2 * keys.length);
+				size = 0;
+				for (int i = 0; i < oldKeys.length; ++i)
+					if (oldKeys[i] != EMPTY)
+						insert(oldKeys[i], oldVals[i]);
+			}
+			insert(key, val);
+		}
+
+		private void insert(long key, double val) {
+			int pos = slot(key);
+			while (keys[pos] != EMPTY && keys[pos] != key)
+				pos = (pos + 1) & (keys.length - 1);
+			if (keys[pos] == EMPTY)
+				++size;
+			keys[pos] = key;
+			vals[pos] = val;
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package aishields.linkprediction.algorithms;
+
+/**
+ * Operation accepting the score of a pair of nodes, used to stream scores without creating Edge objects.
+ * 
+ * @author Marcin Waniek
+ */
+@FunctionalInterface
+public interface ScoreConsumer {
+
+	public void accept(int i, int j, double score);
+	
+	/**
+	 * Whether the consumer does not need any more scores, allowing the producer to stop early.
+	 */
+	public default boolean isDone() {
+		return false;
+	}
+}
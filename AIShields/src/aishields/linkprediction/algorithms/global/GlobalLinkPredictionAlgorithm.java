@@ -0,0 +1,38 @@
+package aishields.linkprediction.algorithms.global;
+
+import aishields.core.Graph;
+import aishields.linkprediction.algorithms.LinkPredictionAlgorithm;
+
+/**
+ * Link prediction algorithm that uses the structure of the whole network. Scores of all pairs with a given source
+ * node are computed at once by truncated sparse power iteration and cached for the current version of the graph.
+ * 
+ * @author Marcin Waniek
+ */
+public abstract class GlobalLinkPredictionAlgorithm extends LinkPredictionAlgorithm {
+
+	/**
+	 * Computes the vector of scores of all pairs (i, j) for the given source node i, which is not modified afterwards,
+	 * as it is cached and shared between threads.
+	 */
+	protected abstract SparseVector computeSourceScores(SparseAdjacency a, int i);
+	
+	/**
+	 * In undirected graphs the score is always read from the row of the smaller node, so that it does not depend
+	 * on the order of nodes.
+	 */
+	@Override
+	protected Double computeScore(Graph g, int i, int j) {
+		if (!g.isDirected() && j < i)
+			return getSourceScores(g, j).get(i);
+		return getSourceScores(g, i).get(j);
+	}
+	
+	public SparseVector getSourceScores(Graph g, int i) {
+		return getSourceScoresCache().getSourceScores(this, g, i, k -> computeSourceScores(SparseAdjacency.of(g), k));
+	}
+	
+	protected SourceScoresCache getSourceScoresCache() {
+		return SourceScoresCache.getShared();
+	}
+}
@@ -0,0 +1,58 @@
+package aishields.linkprediction.algorithms.global;
+
+/**
+ * Katz link prediction algorithm, truncated to paths of bounded length.
+
+@article{katz1953new,
+  title={A new status index derived from sociometric analysis},
+  author={Katz, Leo},
+  journal={Psychometrika},
+  volume={18},
+  number={1},
+  pages={39--43},
+  year={1953},
+  publisher={Springer}
+}
+
+ * @author Marcin Waniek
+ */
+public class KatzAlgorithm extends GlobalLinkPredictionAlgorithm {
+	
+	public static final double DEFAULT_BETA = .01;
+	public static final int DEFAULT_MAX_LENGTH = 10;
+	private static final double PRECISION = 1e-12;
+	
+	private double beta;
+	private int maxLength;
+	
+	public KatzAlgorithm(double beta, int maxLength) {
+		this.beta = beta;
+		this.maxLength = maxLength;
+	}
+	
+	public KatzAlgorithm() {
+		this(DEFAULT_BETA, DEFAULT_MAX_LENGTH);
+	}
+
+	@Override
+	public String getName() {
+		return "katz";
+	}
+
+	@Override
+	protected SparseVector computeSourceScores(SparseAdjacency a, int i) {
+		SparseVector res = new SparseVector();
+		SparseVector paths = new SparseVector().add(i, 1.);
+		SparseVector next = new SparseVector();
+		for (int l = 1; l <= maxLength; ++l) {
+			a.multiply(paths, next.clear(), beta);
+			SparseVector tmp = paths;
+			paths = next;
+			next = tmp;
+			res.add(paths, 1.);
+			if (paths.maxAbs() < PRECISION)
+				break;
+		}
+		return res;
+	}
+}
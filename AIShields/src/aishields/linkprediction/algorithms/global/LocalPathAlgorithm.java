@@ -0,0 +1,48 @@
+package aishields.linkprediction.algorithms.global;
+
+/**
+ * Local path link prediction algorithm.
+
+@article{lu2009similarity,
+  title={Similarity index based on local paths for link prediction of complex networks},
+  author={L{\"u}, Linyuan and Jin, Ci-Hang and Zhou, Tao},
+  journal={Physical Review E},
+  volume={80},
+  number={4},
+  pages={046122},
+  year={2009},
+  publisher={APS}
+}
+
+ * @author Marcin Waniek
+ */
+public class LocalPathAlgorithm extends GlobalLinkPredictionAlgorithm {
+	
+	public static final double DEFAULT_EPSILON = .01;
+	
+	private double epsilon;
+	
+	public LocalPathAlgorithm(double epsilon) {
+		this.epsilon = epsilon;
+	}
+	
+	public LocalPathAlgorithm() {
+		this(DEFAULT_EPSILON);
+	}
+
+	@Override
+	public String getName() {
+		return "localPath";
+	}
+
+	@Override
+	protected SparseVector computeSourceScores(SparseAdjacency a, int i) {
+		SparseVector paths1 = new SparseVector();
+		SparseVector paths2 = new SparseVector();
+		SparseVector paths3 = new SparseVector();
+		a.multiply(new SparseVector().add(i, 1.), paths1, 1.);
+		a.multiply(paths1, paths2, 1.);
+		a.multiply(paths2, paths3, epsilon);
+		return paths2.add(paths3, 1.);
+	}
+}
@@ -0,0 +1,61 @@
+package aishields.linkprediction.algorithms.global;
+
+import aishields.core.Graph;
+
+/**
+ * Local random walk link prediction algorithm.
+
+@article{liu2010link,
+  title={Link prediction based on local random walk},
+  author={Liu, Weiping and L{\"u}, Linyuan},
+  journal={EPL (Europhysics Letters)},
+  volume={89},
+  number={5},
+  pages={58007},
+  year={2010},
+  publisher={IOP Publishing}
+}
+
+ * @author Marcin Waniek
+ */
+public class LocalRandomWalkAlgorithm extends GlobalLinkPredictionAlgorithm {
+	
+	public static final int DEFAULT_STEPS = 3;
+	
+	private int steps;
+	
+	public LocalRandomWalkAlgorithm(int steps) {
+		this.steps = steps;
+	}
+	
+	public LocalRandomWalkAlgorithm() {
+		this(DEFAULT_STEPS);
+	}
+
+	@Override
+	public String getName() {
+		return "localRandomWalk";
+	}
+	
+	@Override
+	protected Double computeScore(Graph g, int i, int j) {
+		SparseAdjacency a = SparseAdjacency.of(g);
+		if (a.getDegreeSum() == 0)
+			return 0.;
+		return (a.getDegree(i) * getSourceScores(g, i).get(j) + a.getDegree(j) * getSourceScores(g, j).get(i))
+				/ a.getDegreeSum();
+	}
+
+	@Override
+	protected SparseVector computeSourceScores(SparseAdjacency a, int i) {
+		SparseVector walk = new SparseVector().add(i, 1.);
+		SparseVector next = new SparseVector();
+		for (int t = 1; t <= steps; ++t) {
+			a.multiplyTransposedTransition(walk, next.clear(), 1.);
+			SparseVector tmp = walk;
+			walk = next;
+			next = tmp;
+		}
+		return walk;
+	}
+}
@@ -0,0 +1,62 @@
+package aishields.linkprediction.algorithms.global;
+
+import aishields.core.Graph;
+
+/**
+ * Random walk with restart link prediction algorithm, computed as a truncated series of walk distributions.
+
+@inproceedings{tong2006fast,
+  title={Fast random walk with restart and its applications},
+  author={Tong, Hanghang and Faloutsos, Christos and Pan, Jia-Yu},
+  booktitle={Sixth International Conference on Data Mining (ICDM'06)},
+  pages={613--622},
+  year={2006},
+  organization={IEEE}
+}
+
+ * @author Marcin Waniek
+ */
+public class RandomWalkWithRestartAlgorithm extends GlobalLinkPredictionAlgorithm {
+	
+	public static final double DEFAULT_CONTINUE_PROB = .85;
+	public static final int DEFAULT_MAX_STEPS = 100;
+	private static final double PRECISION = 1e-9;
+	
+	private double continueProb;
+	private int maxSteps;
+	
+	public RandomWalkWithRestartAlgorithm(double continueProb, int maxSteps) {
+		this.continueProb = continueProb;
+		this.maxSteps = maxSteps;
+	}
+	
+	public RandomWalkWithRestartAlgorithm() {
+		this(DEFAULT_CONTINUE_PROB, DEFAULT_MAX_STEPS);
+	}
+
+	@Override
+	public String getName() {
+		return "randomWalkWithRestart";
+	}
+	
+	@Override
+	protected Double computeScore(Graph g, int i, int j) {
+		return getSourceScores(g, i).get(j) + getSourceScores(g, j).get(i);
+	}
+
+	@Override
+	protected SparseVector computeSourceScores(SparseAdjacency a, int i) {
+		SparseVector res = new SparseVector();
+		SparseVector walk = new SparseVector().add(i, 1. - continueProb);
+		SparseVector next = new SparseVector();
+		res.add(walk, 1.);
+		for (int t = 1; t <= maxSteps && walk.maxAbs() >= PRECISION; ++t) {
+			a.multiplyTransposedTransition(walk, next.clear(), continueProb);
+			SparseVector tmp = walk;
+			walk = next;
+			next = tmp;
+			res.add(walk, 1.);
+		}
+		return res;
+	}
+}
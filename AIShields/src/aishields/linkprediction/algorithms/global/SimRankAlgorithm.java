@@ -0,0 +1,64 @@
+package aishields.linkprediction.algorithms.global;
+
+/**
+ * SimRank link prediction algorithm, computed with the linearized single-source formulation
+ * s(i, .) = (1 - C) * sum_t C^t P^t (P^T)^t e_i truncated to walks of bounded length.
+
+@inproceedings{jeh2002simrank,
+  title={SimRank: a measure of structural-context similarity},
+  author={Jeh, Glen and Widom, Jennifer},
+  booktitle={Proceedings of the eighth ACM SIGKDD international conference on Knowledge discovery and data mining},
+  pages={538--543},
+  year={2002}
+}
+
+ * @author Marcin Waniek
+ */
+public class SimRankAlgorithm extends GlobalLinkPredictionAlgorithm {
+	
+	public static final double DEFAULT_DECAY = .8;
+	public static final int DEFAULT_MAX_STEPS = 5;
+	
+	private double decay;
+	private int maxSteps;
+	
+	public SimRankAlgorithm(double decay, int maxSteps) {
+		this.decay = decay;
+		this.maxSteps = maxSteps;
+	}
+	
+	public SimRankAlgorithm() {
+		this(DEFAULT_DECAY, DEFAULT_MAX_STEPS);
+	}
+
+	@Override
+	public String getName() {
+		return "simRank";
+	}
+
+	@Override
+	protected SparseVector computeSourceScores(SparseAdjacency a, int i) {
+		SparseVector res = new SparseVector().add(i, 1. - decay);
+		SparseVector walk = new SparseVector().add(i, 1.);
+		SparseVector next = new SparseVector();
+		SparseVector back = new SparseVector();
+		SparseVector backNext = new SparseVector();
+		double coef = 1. - decay;
+		for (int t = 1; t <= maxSteps; ++t) {
+			a.multiplyTransposedTransition(walk, next.clear(), 1.);
+			SparseVector tmp = walk;
+			walk = next;
+			next = tmp;
+			coef *= decay;
+			back.clear().add(walk, 1.);
+			for (int s = 0; s < t; ++s) {
+				a.multiplyTransition(back, backNext.clear(), 1.);
+				tmp = back;
+				back = backNext;
+				backNext = tmp;
+			}
+			res.add(back, coef);
+		}
+		return res;
+	}
+}
@@ -0,0 +1,121 @@
+package aishields.linkprediction.algorithms.global;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+import aishields.core.Graph;
+
+/**
+ * Thread-safe cache of per-source score vectors of global link prediction algorithms.
+ * Vectors are stored per (algorithm, graph) pair and discarded whenever the version of the graph changes.
+ *
+ * @author Marcin Waniek
+ */
+public class SourceScoresCache {
+
+	public static final int DEFAULT_MAX_TABLES = 64;
+	public static final long DEFAULT_MAX_CELLS = 1L << 23;
+
+	private static final SourceScoresCache SHARED = new SourceScoresCache(DEFAULT_MAX_TABLES, DEFAULT_MAX_CELLS);
+
+	private int maxTables;
+	private long maxCells;
+	private ConcurrentHashMap<Key, Table> tables;
+	private ConcurrentLinkedQueue<Key> insertionOrder;
+
+	/**
+	 * @param maxTables maximal number of (algorithm, graph) pairs for which vectors are kept
+	 * @param maxCells maximal total number of non-zero entries of vectors kept for a single (algorithm, graph) pair
+	 */
+	public SourceScoresCache(int maxTables, long maxCells) {
+		this.maxTables = maxTables;
+		this.maxCells = maxCells;
+		this.tables = new ConcurrentHashMap<>();
+		this.insertionOrder = new ConcurrentLinkedQueue<>();
+	}
+
+	public static SourceScoresCache getShared() {
+		return SHARED;
+	}
+
+	public SparseVector getSourceScores(GlobalLinkPredictionAlgorithm alg, Graph g, int i,
+			IntFunction<SparseVector> compute) {
+		Table t = getTable(alg, g);
+		SparseVector res = t.rows.get(i);
+		if (res == null) {
+			res = compute.apply(i);
+			if (t.cells.addAndGet(res.supportSize()) > maxCells) {
+				t.rows.clear();
+				t.cells.set(res.supportSize());
+			}
+			t.rows.put(i, res);
+		}
+		return res;
+	}
+
+	public void clear() {
+		tables.clear();
+		insertionOrder.clear();
+	}
+
+	private Table getTable(GlobalLinkPredictionAlgorithm alg, Graph g) {
+		Key key = new Key(alg, g);
+		long version = g.getVersion();
+		Table t = tables.get(key);
+		if (t == null || t.version != version) {
+			boolean isNew = t == null;
+			t = tables.compute(key, (k, old) -> old == null || old.version != version ? new Table(version) : old);
+			if (isNew) {
+				insertionOrder.add(key);
+				while (tables.size() > maxTables) {
+					Key oldest = insertionOrder.poll();
+					if (oldest == null)
+						break;
+					tables.remove(oldest);
+				}
+			}
+		}
+		return t;
+	}
+
+	private static class Key {
+
+		private GlobalLinkPredictionAlgorithm alg;
+		private Graph g;
+
+		public Key(GlobalLinkPredictionAlgorithm alg, Graph g) {
+			this.alg = alg;
+			this.g = g;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (o == null || !(o instanceof Key))
+				return false;
+			Key k = (Key)o;
+			return alg == k.alg && g == k.g;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(alg) + System.identityHashCode(g);
+		}
+	}
+
+	private static class Table {
+
+		private long version;
+		private ConcurrentHashMap<Integer, SparseVector> rows;
+		private AtomicLong cells;
+
+		public Table(long version) {
+			this.version = version;
+			this.rows = new ConcurrentHashMap<>();
+			this.cells = new AtomicLong();
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package aishields.linkprediction.algorithms.global;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import aishields.core.Graph;
+
+/**
+ * Immutable compressed sparse row snapshot of the neighbourhood structure of a graph, used by the iterative global
+ * link prediction algorithms. Directed graphs are treated as undirected, i.e., the snapshot stores neighbours.
+ * Snapshots are shared per graph and rebuilt whenever the version of the graph changes.
+ *
+ * @author Marcin Waniek
+ */
+public class SparseAdjacency {
+
+	private static final int MAX_SNAPSHOTS = 64;
+	private static final ConcurrentHashMap<Graph, SparseAdjacency> SNAPSHOTS = new ConcurrentHashMap<>();
+	private static final ConcurrentLinkedQueue<Graph> INSERTION_ORDER = new ConcurrentLinkedQueue<>();
+
+	private long version;
+	private int[] offsets;
+	private int[] neighs;
+	private long degreeSum;
+
+	public SparseAdjacency(Graph g) {
+		this.version = g.getVersion();
+		this.offsets = new int[g.size() + 1];
+		for (int i = 0; i < g.size(); ++i)
+			offsets[i + 1] = offsets[i] + g.getNeighs(i).size();
+		this.neighs = new int[offsets[g.size()]];
+		for (int i = 0; i < g.size(); ++i) {
+			int pos = offsets[i];
+			for (int j : g.getNeighs(i))
+				neighs[pos++] = j;
+			Arrays.sort(neighs, offsets[i], offsets[i + 1]);
+		}
+		this.degreeSum = neighs.length;
+	}
+
+	/**
+	 * Returns the snapshot of the current version of the graph.
+	 */
+	public static SparseAdjacency of(Graph g) {
+		SparseAdjacency res = SNAPSHOTS.get(g);
+		if (res == null || res.version != g.getVersion()) {
+			boolean isNew = res == null;
+			res = SNAPSHOTS.compute(g, (gr, old) -> old == null || old.version != gr.getVersion()
+					? new SparseAdjacency(gr) : old);
+			if (isNew) {
+				INSERTION_ORDER.add(g);
+				while (SNAPSHOTS.size() > MAX_SNAPSHOTS) {
+					Graph oldest = INSERTION_ORDER.poll();
+					if (oldest == null)
+						break;
+					SNAPSHOTS.remove(oldest);
+				}
+			}
+		}
+		return res;
+	}
+
+	public int size() {
+		return offsets.length - 1;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public int getDegree(int i) {
+		return offsets[i + 1] - offsets[i];
+	}
+
+	/**
+	 * Sum of degrees of all nodes (twice the number of undirected edges).
+	 */
+	public long getDegreeSum() {
+		return degreeSum;
+	}
+
+	public int getNeigh(int i, int k) {
+		return neighs[offsets[i] + k];
+	}
+
+	/**
+	 * Adds factor * A * x to y.
+	 */
+	public void multiply(SparseVector x, SparseVector y, double factor) {
+		for (int s = 0; s < x.supportSize(); ++s) {
+			int j = x.getSupportNode(s);
+			double v = factor * x.getSupportValue(s);
+			if (v != 0.)
+				for (int pos = offsets[j]; pos < offsets[j + 1]; ++pos)
+					y.add(neighs[pos], v);
+		}
+	}
+
+	/**
+	 * Adds factor * P^T * x to y, where P is the transition matrix of the random walk.
+	 */
+	public void multiplyTransposedTransition(SparseVector x, SparseVector y, double factor) {
+		for (int s = 0; s < x.supportSize(); ++s) {
+			int j = x.getSupportNode(s);
+			int deg = getDegree(j);
+			double v = deg > 0 ? factor * x.getSupportValue(s) / deg : 0.;
+			if (v != 0.)
+				for (int pos = offsets[j]; pos < offsets[j + 1]; ++pos)
+					y.add(neighs[pos], v);
+		}
+	}
+
+	/**
+	 * Adds factor * P * x to y, where P is the transition matrix of the random walk.
+	 */
+	public void multiplyTransition(SparseVector x, SparseVector y, double factor) {
+		for (int s = 0; s < x.supportSize(); ++s) {
+			int j = x.getSupportNode(s);
+			double v = factor * x.getSupportValue(s);
+			if (v != 0.)
+				for (int pos = offsets[j]; pos < offsets[j + 1]; ++pos)
+					y.add(neighs[pos], v / getDegree(neighs[pos]));
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package aishields.linkprediction.algorithms.global;
+
+import java.util.Arrays;
+
+/**
+ * Vector over the nodes of a graph that stores only its non-zero entries, as nodes and values in the order of
+ * insertion together with an open addressing hash table of their positions, so that it takes memory and iterating
+ * over it takes time proportional to the size of its support rather than to the number of nodes.
+ *
+ * @author Marcin Waniek
+ */
+public class SparseVector {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private int[] support;
+	private double[] values;
+	private int supportSize;
+	private int[] positions;
+
+	public SparseVector() {
+		this.support = new int[INITIAL_CAPACITY];
+		this.values = new double[INITIAL_CAPACITY];
+		this.supportSize = 0;
+		this.positions = new int[2 * INITIAL_CAPACITY];
+		Arrays.fill(positions, -1);
+	}
+
+	public double get(int i) {
+		int slot = find(i);
+		return positions[slot] < 0 ? 0. : values[positions[slot]];
+	}
+
+	public SparseVector add(int i, double v) {
+		int slot = find(i);
+		if (positions[slot] < 0) {
+			if (supportSize == support.length) {
+				grow();
+				slot = find(i);
+			}
+			positions[slot] = supportSize;
+			support[supportSize++] = i;
+		}
+		values[positions[slot]] += v;
+		return this;
+	}
+
+	public int supportSize() {
+		return supportSize;
+	}
+
+	public int getSupportNode(int s) {
+		return support[s];
+	}
+
+	public double getSupportValue(int s) {
+		return values[s];
+	}
+
+	/**
+	 * Adds factor * x to this vector.
+	 */
+	public SparseVector add(SparseVector x, double factor) {
+		for (int s = 0; s < x.supportSize; ++s)
+			add(x.support[s], factor * x.values[s]);
+		return this;
+	}
+
+	public double maxAbs() {
+		double res = 0.;
+		for (int s = 0; s < supportSize; ++s)
+			res = Math.max(res, Math.abs(values[s]));
+		return res;
+	}
+
+	/**
+	 * Nodes are removed from the hash table in the reverse order of insertion, so that the probing sequence of
+	 * every removed node is still the one it was inserted with.
+	 */
+	public SparseVector clear() {
+		for (int s = supportSize - 1; s >= 0; --s) {
+			positions[find(support[s])] = -1;
+			values[s] = 0.;
+		}
+		supportSize = 0;
+		return this;
+	}
+
+	/**
+	 * Slot of the hash table holding the position of node i, or the empty slot where it would be inserted.
+	 * The table is kept at most half full, so that linear probing ends quickly.
+	 */
+	private int find(int i) {
+		int mask = positions.length - 1;
+		int slot = (i * 0x9E3779B9 >>> 16) & mask;
+		while (positions[slot] >= 0 && support[positions[slot]] != i)
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	private void grow() {
+		support = Arrays.copyOf(support, 2 * support.length);
+		values = Arrays.copyOf(values, support.length);
+		positions = new int[2 * support.length];
+		Arrays.fill(positions, -1);
+		for (int s = 0; s < supportSize; ++s)
+			positions[find(support[s])] = s;
+	}
+}
@@ -0,0 +1,86 @@
+package aishields.linkprediction.algorithms.local;
+
+import java.util.List;
+
+import aishields.core.Graph;
+import aishields.linkprediction.algorithms.LinkPredictionAlgorithm;
+import aishields.linkprediction.algorithms.NodeFeatureTable;
+import aishields.linkprediction.algorithms.ScoreConsumer;
+
+/**
+ * Computes scores of common neighbours, Adamic-Adar and resource allocation algorithms for all non-edges of an
+ * undirected graph at once, accumulating contributions of common neighbours for every source node instead of
+ * intersecting neighbourhoods of every pair. Contributions are added in ascending order of common neighbours, so
+ * weighted scores may differ by rounding from the ones computed for single pairs.
+ * 
+ * @author Marcin Waniek
+ */
+public class FusedLocalScorer {
+	
+	private static final int COMMON_NEIGHBOURS = 0;
+	private static final int ADAMIC_ADAR = 1;
+	private static final int RESOURCE_ALLOCATION = 2;
+	
+	public static boolean supports(Graph g, LinkPredictionAlgorithm alg) {
+		return !g.isDirected() && getType(alg) >= 0;
+	}
+	
+	private static int getType(LinkPredictionAlgorithm alg) {
+		if (alg instanceof CommonNeighboursAlgorithm)
+			return COMMON_NEIGHBOURS;
+		else if (alg instanceof AdamicAdarAlgorithm)
+			return ADAMIC_ADAR;
+		else if (alg instanceof ResourceAllocationAlgorithm)
+			return RESOURCE_ALLOCATION;
+		return -1;
+	}
+	
+	/**
+	 * Streams scores of all algorithms for non-edges with a common neighbour, passing scores of the k-th algorithm
+	 * to the k-th consumer. All algorithms have to be supported for the graph.
+	 * 
+	 * @return number of skipped non-edges, all of which have score 0
+	 */
+	public static long scoreNonEdges(Graph g, List<LinkPredictionAlgorithm> algs, List<ScoreConsumer> consumers) {
+		int[] types = algs.stream().mapToInt(alg -> getType(alg)).toArray();
+		NodeFeatureTable f = NodeFeatureTable.of(g);
+		int n = g.size();
+		int[][] neighs = new int[n][];
+		for (int i = 0; i < n; ++i)
+			neighs[i] = g.getNeighsStream(i).sorted().toArray();
+		int[] common = new int[n];
+		double[] adamicAdar = new double[n];
+		double[] resourceAllocation = new double[n];
+		int[] neighStamp = new int[n];
+		int[] touchedStamp = new int[n];
+		int[] touched = new int[n];
+		long streamed = 0;
+		for (int i = 0; i < n; ++i) {
+			for (int k : neighs[i])
+				neighStamp[k] = i + 1;
+			int size = 0;
+			for (int k : neighs[i])
+				for (int j : neighs[k])
+					if (j > i && neighStamp[j] != i + 1) {
+						if (touchedStamp[j] != i + 1) {
+							touchedStamp[j] = i + 1;
+							touched[size++] = j;
+							common[j] = 0;
+							adamicAdar[j] = 0.;
+							resourceAllocation[j] = 0.;
+						}
+						++common[j];
+						adamicAdar[j] += f.getInverseLogDegree(k);
+						resourceAllocation[j] += f.getInverseDegree(k);
+					}
+			for (int t = 0; t < size; ++t) {
+				int j = touched[t];
+				for (int a = 0; a < types.length; ++a)
+					consumers.get(a).accept(i, j, types[a] == COMMON_NEIGHBOURS ? common[j]
+							: types[a] == ADAMIC_ADAR ? adamicAdar[j] : resourceAllocation[j]);
+			}
+			streamed += size;
+		}
+		return g.nonEdgesCount() - streamed;
+	}
+}
@@ -2,7 +2,6 @@ package aishields.linkprediction.algorithms.local;
 
 import aishields.core.Coalition;
 import aishields.core.Graph;
-import aishields.linkprediction.algorithms.LinkPredictionAlgorithm;
 
 /**
  * Jaccard link prediction algorithm.
@@ -16,17 +15,38 @@ import aishields.linkprediction.algorithms.LinkPredictionAlgorithm;
 
  * @author Marcin Waniek
  */
-public class JaccardAlgorithm extends LinkPredictionAlgorithm {
+public class JaccardAlgorithm extends NeighbourhoodOverlapAlgorithm {
 
+	public JaccardAlgorithm() {
+		super();
+	}
+	
+	/**
+	 * @param sketchSize size of neighbourhood sketches used to estimate scores, or 0 for exact scores
+	 */
+	public JaccardAlgorithm(int sketchSize) {
+		super(sketchSize);
+	}
+	
 	@Override
 	public String getName() {
 		return "jaccard";
 	}
 	
 	@Override
-	protected Double computeScore(Graph g, int i, int j) {
+	protected Double computeExactScore(Graph g, int i, int j) {
 		if (g.getDegree(i) == 0 || g.getDegree(j) == 0)
 			return 0.;
 		return (double) g.getNumberOfCommonNeighs(i, j) / Coalition.add(g.getNeighs(i), g.getNeighs(j)).size();
 	}
+	
+	@Override
+	protected double scoreFromJaccard(double jaccard, int di, int dj) {
+		return jaccard;
+	}
+	
+	@Override
+	protected double scoreFromJaccardDerivative(double jaccard, int di, int dj) {
+		return 1.;
+	}
 }
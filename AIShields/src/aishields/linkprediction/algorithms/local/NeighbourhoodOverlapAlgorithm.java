@@ -0,0 +1,68 @@
+package aishields.linkprediction.algorithms.local;
+
+import aishields.core.Graph;
+import aishields.linkprediction.algorithms.LinkPredictionAlgorithm;
+import aishields.linkprediction.algorithms.NeighbourhoodSketches;
+
+/**
+ * Link prediction algorithm based on the overlap of neighbourhoods, which can be either computed exactly or
+ * estimated from bottom-k sketches of neighbourhoods (when the sketch size is positive).
+ * 
+ * @author Marcin Waniek
+ */
+public abstract class NeighbourhoodOverlapAlgorithm extends LinkPredictionAlgorithm {
+	
+	private int sketchSize;
+	
+	/**
+	 * @param sketchSize size of neighbourhood sketches used to estimate scores, or 0 for exact scores
+	 */
+	public NeighbourhoodOverlapAlgorithm(int sketchSize) {
+		this.sketchSize = sketchSize;
+	}
+	
+	public NeighbourhoodOverlapAlgorithm() {
+		this(0);
+	}
+	
+	public int getSketchSize() {
+		return sketchSize;
+	}
+	
+	public boolean isApproximate() {
+		return sketchSize > 0;
+	}
+	
+	protected abstract Double computeExactScore(Graph g, int i, int j);
+	
+	/**
+	 * Score as a function of the Jaccard similarity of neighbourhoods of sizes di and dj.
+	 */
+	protected abstract double scoreFromJaccard(double jaccard, int di, int dj);
+	
+	/**
+	 * Derivative of the score with respect to the Jaccard similarity of neighbourhoods of sizes di and dj.
+	 */
+	protected abstract double scoreFromJaccardDerivative(double jaccard, int di, int dj);
+
+	@Override
+	protected Double computeScore(Graph g, int i, int j) {
+		if (!isApproximate())
+			return computeExactScore(g, i, j);
+		if (g.getDegree(i) == 0 || g.getDegree(j) == 0)
+			return 0.;
+		return scoreFromJaccard(NeighbourhoodSketches.of(g, sketchSize).estimateJaccard(i, j),
+				g.getDegree(i), g.getDegree(j));
+	}
+	
+	/**
+	 * Standard error of the score of the pair (i, j), equal to zero for exact scores.
+	 */
+	public double getStandardError(Graph g, int i, int j) {
+		if (!isApproximate() || g.getDegree(i) == 0 || g.getDegree(j) == 0)
+			return 0.;
+		NeighbourhoodSketches s = NeighbourhoodSketches.of(g, sketchSize);
+		return scoreFromJaccardDerivative(s.estimateJaccard(i, j), g.getDegree(i), g.getDegree(j))
+				* s.getJaccardStandardError(i, j);
+	}
+}
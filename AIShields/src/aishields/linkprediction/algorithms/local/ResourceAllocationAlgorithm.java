@@ -2,6 +2,7 @@ package aishields.linkprediction.algorithms.local;
 
 import aishields.core.Graph;
 import aishields.linkprediction.algorithms.LinkPredictionAlgorithm;
+import aishields.linkprediction.algorithms.NodeFeatureTable;
 
 /**
  * Resource allocation link prediction algorithm.
@@ -28,9 +29,10 @@ public class ResourceAllocationAlgorithm extends LinkPredictionAlgorithm {
 	
 	@Override
 	protected Double computeScore(Graph g, int i, int j) {
+		NodeFeatureTable f = NodeFeatureTable.of(g);
 		double res = 0.;
 		for (int k : g.getCommonNeighs(i, j))
-			res += 1. / g.getDegree(k);
+			res += f.getInverseDegree(k);
 		return res;
 	}
 }
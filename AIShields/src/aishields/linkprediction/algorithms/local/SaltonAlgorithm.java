@@ -1,7 +1,6 @@
 package aishields.linkprediction.algorithms.local;
 
 import aishields.core.Graph;
-import aishields.linkprediction.algorithms.LinkPredictionAlgorithm;
 
 /**
  * Salton link prediction algorithm.
@@ -15,17 +14,38 @@ import aishields.linkprediction.algorithms.LinkPredictionAlgorithm;
 
  * @author Marcin Waniek
  */
-public class SaltonAlgorithm extends LinkPredictionAlgorithm {
+public class SaltonAlgorithm extends NeighbourhoodOverlapAlgorithm {
 
+	public SaltonAlgorithm() {
+		super();
+	}
+	
+	/**
+	 * @param sketchSize size of neighbourhood sketches used to estimate scores, or 0 for exact scores
+	 */
+	public SaltonAlgorithm(int sketchSize) {
+		super(sketchSize);
+	}
+	
 	@Override
 	public String getName() {
 		return "salton";
 	}
 	
 	@Override
-	protected Double computeScore(Graph g, int i, int j) {
+	protected Double computeExactScore(Graph g, int i, int j) {
 		if (g.getDegree(i) == 0 || g.getDegree(j) == 0)
 			return 0.;
 		return (double) g.getNumberOfCommonNeighs(i, j) / Math.sqrt(g.getDegree(i) * g.getDegree(j));
 	}
+	
+	@Override
+	protected double scoreFromJaccard(double jaccard, int di, int dj) {
+		return jaccard * (di + dj) / ((1. + jaccard) * Math.sqrt(di * dj));
+	}
+	
+	@Override
+	protected double scoreFromJaccardDerivative(double jaccard, int di, int dj) {
+		return (di + dj) / ((1. + jaccard) * (1. + jaccard) * Math.sqrt(di * dj));
+	}
 }
@@ -1,7 +1,6 @@
 package aishields.linkprediction.algorithms.local;
 
 import aishields.core.Graph;
-import aishields.linkprediction.algorithms.LinkPredictionAlgorithm;
 
 /**
  * Sorensen link prediction algorithm.
@@ -17,7 +16,18 @@ import aishields.linkprediction.algorithms.LinkPredictionAlgorithm;
 
  * @author Marcin Waniek
  */
-public class SorensenAlgorithm extends LinkPredictionAlgorithm {
+public class SorensenAlgorithm extends NeighbourhoodOverlapAlgorithm {
+	
+	public SorensenAlgorithm() {
+		super();
+	}
+	
+	/**
+	 * @param sketchSize size of neighbourhood sketches used to estimate scores, or 0 for exact scores
+	 */
+	public SorensenAlgorithm(int sketchSize) {
+		super(sketchSize);
+	}
 	
 	@Override
 	public String getName() {
@@ -25,9 +35,19 @@ public class SorensenAlgorithm extends LinkPredictionAlgorithm {
 	}
 
 	@Override
-	protected Double computeScore(Graph g, int i, int j) {
+	protected Double computeExactScore(Graph g, int i, int j) {
 		if (g.getDegree(i) == 0 || g.getDegree(j) == 0)
 			return 0.;
 		return (double) (2 * g.getNumberOfCommonNeighs(i, j)) / (g.getDegree(i) + g.getDegree(j));
 	}
+	
+	@Override
+	protected double scoreFromJaccard(double jaccard, int di, int dj) {
+		return 2. * jaccard / (1. + jaccard);
+	}
+	
+	@Override
+	protected double scoreFromJaccardDerivative(double jaccard, int di, int dj) {
+		return 2. / ((1. + jaccard) * (1. + jaccard));
+	}
 }
@@ -0,0 +1,84 @@
+package aishields.optimiser;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import aishields.core.Edge;
+import aishields.linkprediction.algorithms.LinkPredictionAlgorithm;
+
+/**
+ * Beam search over sets of moves. In every step all sets in the beam are extended by every remaining candidate
+ * and the width sets with the lowest best AUC form the next beam, with ties resolved by the order of generation.
+ * The best set seen in any step is returned.
+ *
+ * @author Marcin Waniek
+ */
+public class BeamSearchOptimiser extends HidingOptimiser {
+
+	public static final int DEFAULT_WIDTH = 10;
+
+	private int width;
+
+	public BeamSearchOptimiser(List<LinkPredictionAlgorithm> algs, int workers, int width) {
+		super(algs, workers);
+		this.width = width;
+	}
+
+	public BeamSearchOptimiser(List<LinkPredictionAlgorithm> algs) {
+		this(algs, DEFAULT_WORKERS, DEFAULT_WIDTH);
+	}
+
+	@Override
+	public String getName() {
+		return "Beam search (" + width + ")";
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	@Override
+	protected List<Edge> optimise(HidingEvaluator ev, List<Edge> candidates, int budget) {
+		List<Edge> initial = ev.getFlips();
+		List<Edge> res = new ArrayList<>();
+		double bestAUC = ev.getAUC();
+		List<List<Edge>> beam = new ArrayList<>();
+		beam.add(new ArrayList<>());
+		for (int step = 0; step < budget && !beam.isEmpty(); ++step) {
+			Set<Set<Edge>> seen = new HashSet<>();
+			List<List<Edge>> children = new ArrayList<>();
+			List<Double> childAUCs = new ArrayList<>();
+			for (List<Edge> state : beam) {
+				List<Edge> flips = new ArrayList<>(initial);
+				flips.addAll(state);
+				ev.setFlips(flips);
+				List<Edge> moves = remaining(candidates, flips);
+				double[] aucs = ev.evaluate(moves);
+				for (int k = 0; k < moves.size(); ++k) {
+					List<Edge> child = new ArrayList<>(state);
+					child.add(moves.get(k));
+					if (seen.add(new HashSet<>(child))) {
+						children.add(child);
+						childAUCs.add(aucs[k]);
+					}
+				}
+			}
+			List<Integer> order = new ArrayList<>();
+			for (int c = 0; c < children.size(); ++c)
+				order.add(c);
+			order.sort(Comparator.comparingDouble(c -> childAUCs.get(c)));
+			beam = new ArrayList<>();
+			for (int c : order.subList(0, Math.min(width, order.size())))
+				beam.add(children.get(c));
+			if (!order.isEmpty() && childAUCs.get(order.get(0)) < bestAUC) {
+				bestAUC = childAUCs.get(order.get(0));
+				res = children.get(order.get(0));
+			}
+		}
+		ev.setFlips(initial);
+		return res;
+	}
+}
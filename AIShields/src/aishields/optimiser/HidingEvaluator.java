@@ -0,0 +1,140 @@
+package aishields.optimiser;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import aishields.core.Edge;
+import aishields.core.Graph;
+import aishields.linkprediction.ShieldSearch;
+import aishields.linkprediction.algorithms.LinkPredictionAlgorithm;
+
+/**
+ * Evaluation of edge flips hiding an edge from a group of link prediction algorithms. Every worker keeps its own
+ * copy of the graph with the current set of flips applied, used to rescore pairs affected by the moves it evaluates,
+ * so candidate moves are evaluated in parallel without locking and the original graph is never modified. Scores of
+ * non-edges are computed once and shared by all workers, each of which only keeps the distribution of changes of
+ * scores made by its flips.
+ *
+ * @author Marcin Waniek
+ */
+public class HidingEvaluator {
+
+	private Graph[] graphs;
+	private ShieldSearch[] searches;
+	private Set<Edge> flips;
+
+	public HidingEvaluator(Graph g, Edge h, List<LinkPredictionAlgorithm> algs, int workers) {
+		this.graphs = new Graph[workers];
+		this.searches = new ShieldSearch[workers];
+		this.flips = new LinkedHashSet<>();
+		graphs[0] = new Graph(g);
+		searches[0] = new ShieldSearch(graphs[0], Collections.singleton(h), algs);
+		IntStream.range(1, workers).parallel().forEach(w -> {
+			graphs[w] = new Graph(g);
+			searches[w] = new ShieldSearch(graphs[w], searches[0]);
+		});
+	}
+
+	public int getWorkers() {
+		return graphs.length;
+	}
+
+	/**
+	 * Best AUC among all algorithms with the current set of flips applied.
+	 */
+	public double getAUC() {
+		return searches[0].getBestAUC();
+	}
+
+	/**
+	 * AUC of every algorithm with the current set of flips applied.
+	 */
+	public double[] getAUCs() {
+		return searches[0].getAUCs();
+	}
+
+	/**
+	 * Current set of flips, in the order in which they were applied.
+	 */
+	public List<Edge> getFlips() {
+		return new ArrayList<>(flips);
+	}
+
+	/**
+	 * Flips the edge e in every copy of the graph, returning the best AUC afterwards.
+	 */
+	public double flip(Edge e) {
+		if (!flips.remove(e))
+			flips.add(e);
+		double[] res = new double[graphs.length];
+		IntStream.range(0, graphs.length).parallel().forEach(w -> res[w] = searches[w].applyFlip(e));
+		return res[0];
+	}
+
+	/**
+	 * Changes the current set of flips to the given one, flipping only edges in which they differ.
+	 */
+	public void setFlips(Collection<Edge> target) {
+		Set<Edge> targetSet = new LinkedHashSet<>(target);
+		for (Edge e : getFlips())
+			if (!targetSet.contains(e))
+				flip(e);
+		for (Edge e : targetSet)
+			if (!flips.contains(e))
+				flip(e);
+	}
+
+	/**
+	 * Best AUC among all algorithms after adding every single move to the current set of flips.
+	 * Moves are split between workers in a round-robin fashion.
+	 */
+	public double[] evaluate(List<Edge> moves) {
+		double[] res = new double[moves.size()];
+		IntStream.range(0, graphs.length).parallel().forEach(w -> {
+			for (int k = w; k < moves.size(); k += graphs.length)
+				res[k] = searches[w].evaluateFlip(moves.get(k));
+		});
+		return res;
+	}
+
+	/**
+	 * AUC of every algorithm after adding every single move to the current set of flips, memoised per move, so
+	 * that their changes with respect to {@link #getAUCs()} are computed only once.
+	 * Moves are split between workers in a round-robin fashion.
+	 */
+	public double[][] evaluateAUCs(List<Edge> moves) {
+		double[][] res = new double[moves.size()][];
+		IntStream.range(0, graphs.length).parallel().forEach(w -> {
+			for (int k = w; k < moves.size(); k += graphs.length)
+				res[k] = searches[w].evaluateFlipAUCs(moves.get(k));
+		});
+		return res;
+	}
+
+	/**
+	 * Best AUC among all algorithms after adding every subset of options of the given size to the current set of
+	 * flips, in the order of {@link ShieldSearch#evaluateSubsets}. Subsets are split between workers by their first
+	 * option, every worker taking the next one once it is done.
+	 */
+	public Map<List<Edge>, Double> evaluateSubsets(List<Edge> options, int size) {
+		if (size == 0 || graphs.length == 1)
+			return searches[0].evaluateSubsets(options, size);
+		List<Map<List<Edge>, Double>> parts = new ArrayList<>(Collections.nCopies(options.size(), null));
+		AtomicInteger next = new AtomicInteger();
+		IntStream.range(0, graphs.length).parallel().forEach(w -> {
+			for (int first = next.getAndIncrement(); first < options.size(); first = next.getAndIncrement())
+				parts.set(first, searches[w].evaluateSubsetsStartingWith(options, size, first));
+		});
+		Map<List<Edge>, Double> res = new LinkedHashMap<>();
+		parts.forEach(part -> res.putAll(part));
+		return res;
+	}
+}
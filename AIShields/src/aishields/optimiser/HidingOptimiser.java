@@ -0,0 +1,90 @@
+package aishields.optimiser;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import aishields.core.Edge;
+import aishields.core.Graph;
+import aishields.linkprediction.algorithms.LinkPredictionAlgorithm;
+
+/**
+ * Heuristic search for a set of at most budget edge additions and removals that minimises the best AUC of a hidden
+ * edge among a group of link prediction algorithms, for networks too large for the exhaustive search over subsets.
+ *
+ * @author Marcin Waniek
+ */
+public abstract class HidingOptimiser {
+
+	public static final int DEFAULT_WORKERS = 8;
+
+	private List<LinkPredictionAlgorithm> algs;
+	private int workers;
+
+	public HidingOptimiser(List<LinkPredictionAlgorithm> algs, int workers) {
+		this.algs = algs;
+		this.workers = workers;
+	}
+
+	public HidingOptimiser(List<LinkPredictionAlgorithm> algs) {
+		this(algs, DEFAULT_WORKERS);
+	}
+
+	public abstract String getName();
+
+	/**
+	 * Chooses at most budget moves among candidates to add to the current set of flips of the evaluator,
+	 * which is restored afterwards.
+	 */
+	protected abstract List<Edge> optimise(HidingEvaluator ev, List<Edge> candidates, int budget);
+
+	public List<LinkPredictionAlgorithm> getAlgorithms() {
+		return algs;
+	}
+
+	public int getWorkers() {
+		return workers;
+	}
+
+	/**
+	 * Chooses at most budget edges among candidates whose flips minimise the best AUC of the hidden edge h,
+	 * which should not be present in the graph. The graph is left unchanged.
+	 */
+	public List<Edge> optimise(Graph g, Edge h, List<Edge> candidates, int budget) {
+		return optimise(new HidingEvaluator(g, h, algs, workers), candidates, budget);
+	}
+
+	public List<Edge> optimise(Graph g, Edge h, int budget) {
+		return optimise(g, h, getCandidates(g, h), budget);
+	}
+
+	/**
+	 * Default candidate moves: removals of edges incident to the ends of the hidden edge h and additions of edges
+	 * between an end of h and the nodes at distance two from it.
+	 */
+	public static List<Edge> getCandidates(Graph g, Edge h) {
+		List<Edge> res = new ArrayList<>();
+		for (int i : h)
+			g.getNeighsStream(i).forEach(j -> res.add(g.e(i, j)));
+		for (int i : h) {
+			Set<Integer> twoHop = new LinkedHashSet<>();
+			g.getNeighsStream(i).forEach(j -> g.getNeighsStream(j)
+					.filter(k -> !h.contains(k) && !g.containsAnyDirectionEdge(i, k)).forEach(k -> twoHop.add(k)));
+			twoHop.forEach(k -> res.add(g.e(i, k)));
+		}
+		return res;
+	}
+
+	/**
+	 * Candidates that are not in the given set of flips.
+	 */
+	protected static List<Edge> remaining(List<Edge> candidates, List<Edge> flips) {
+		Set<Edge> used = new LinkedHashSet<>(flips);
+		List<Edge> res = new ArrayList<>();
+		for (Edge e : candidates)
+			if (!used.contains(e))
+				res.add(e);
+		return res;
+	}
+}
@@ -0,0 +1,94 @@
+package aishields.optimiser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+
+import aishields.core.Edge;
+import aishields.linkprediction.algorithms.LinkPredictionAlgorithm;
+
+/**
+ * Greedy choice of the move with the largest decrease of the best AUC, with lazy evaluation of gains. Gains are
+ * kept in a priority queue together with the step in which they were computed and only the stale gains at the top
+ * of the queue are recomputed, a batch of one per worker at a time. As the decrease of the AUC is not submodular,
+ * stale gains are not guaranteed upper bounds and the result may differ from the plain greedy one.
+
+@inproceedings{leskovec2007cost,
+  title={Cost-effective outbreak detection in networks},
+  author={Leskovec, Jure and Krause, Andreas and Guestrin, Carlos and Faloutsos, Christos and VanBriesen, Jeanne
+  and Glance, Natalie},
+  booktitle={Proceedings of the 13th ACM SIGKDD international conference on Knowledge discovery and data mining},
+  pages={420--429},
+  year={2007}
+}
+
+ * @author Marcin Waniek
+ */
+public class LazyGreedyOptimiser extends HidingOptimiser {
+
+	public LazyGreedyOptimiser(List<LinkPredictionAlgorithm> algs, int workers) {
+		super(algs, workers);
+	}
+
+	public LazyGreedyOptimiser(List<LinkPredictionAlgorithm> algs) {
+		super(algs);
+	}
+
+	@Override
+	public String getName() {
+		return "Lazy greedy";
+	}
+
+	@Override
+	protected List<Edge> optimise(HidingEvaluator ev, List<Edge> candidates, int budget) {
+		List<Edge> base = ev.getFlips();
+		List<Edge> res = new ArrayList<>();
+		List<Edge> moves = remaining(candidates, ev.getFlips());
+		double auc = ev.getAUC();
+		double[] aucs = ev.evaluate(moves);
+		PriorityQueue<Gain> queue = new PriorityQueue<>();
+		for (int k = 0; k < moves.size(); ++k)
+			queue.add(new Gain(k, auc - aucs[k], 0));
+		int step = 0;
+		while (res.size() < budget && !queue.isEmpty()) {
+			if (queue.peek().step == step) {
+				Gain best = queue.poll();
+				if (best.gain <= 0.)
+					break;
+				res.add(moves.get(best.index));
+				auc = ev.flip(moves.get(best.index));
+				++step;
+			} else {
+				List<Gain> stale = new ArrayList<>();
+				while (stale.size() < ev.getWorkers() && !queue.isEmpty() && queue.peek().step != step)
+					stale.add(queue.poll());
+				double[] updated = ev.evaluate(stale.stream().map(s -> moves.get(s.index))
+						.collect(Collectors.toList()));
+				for (int s = 0; s < stale.size(); ++s)
+					queue.add(new Gain(stale.get(s).index, auc - updated[s], step));
+			}
+		}
+		ev.setFlips(base);
+		return res;
+	}
+
+	private static class Gain implements Comparable<Gain> {
+
+		private int index;
+		private double gain;
+		private int step;
+
+		public Gain(int index, double gain, int step) {
+			this.index = index;
+			this.gain = gain;
+			this.step = step;
+		}
+
+		@Override
+		public int compareTo(Gain o) {
+			int res = Double.compare(o.gain, gain);
+			return res != 0 ? res : Integer.compare(index, o.index);
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package aishields.optimiser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import aishields.core.Edge;
+
+/**
+ * Local search improving the set of moves found by another optimiser. In every pass all neighbouring sets are
+ * evaluated, i.e., sets with one move added (if the budget allows), removed or swapped for a remaining candidate,
+ * and the best of them replaces the current set if it lowers the best AUC.
+ *
+ * @author Marcin Waniek
+ */
+public class LocalSearchOptimiser extends HidingOptimiser {
+
+	public static final int DEFAULT_MAX_PASSES = 100;
+
+	private HidingOptimiser initial;
+	private int maxPasses;
+
+	public LocalSearchOptimiser(HidingOptimiser initial, int maxPasses) {
+		super(initial.getAlgorithms(), initial.getWorkers());
+		this.initial = initial;
+		this.maxPasses = maxPasses;
+	}
+
+	public LocalSearchOptimiser(HidingOptimiser initial) {
+		this(initial, DEFAULT_MAX_PASSES);
+	}
+
+	@Override
+	public String getName() {
+		return "Local search (" + initial.getName() + ")";
+	}
+
+	@Override
+	protected List<Edge> optimise(HidingEvaluator ev, List<Edge> candidates, int budget) {
+		List<Edge> base = ev.getFlips();
+		List<Edge> res = initial.optimise(ev, candidates, budget);
+		List<Edge> flips = new ArrayList<>(base);
+		flips.addAll(res);
+		ev.setFlips(flips);
+		double auc = ev.getAUC();
+		for (int pass = 0; pass < maxPasses; ++pass) {
+			double bestAUC = auc;
+			int bestOut = -1;
+			Edge bestIn = null;
+			for (int out = -1; out < res.size(); ++out) {
+				if (out < 0 && res.size() >= budget)
+					continue;
+				List<Edge> kept = new ArrayList<>(res);
+				if (out >= 0) {
+					kept.remove(out);
+					flips = new ArrayList<>(base);
+					flips.addAll(kept);
+					ev.setFlips(flips);
+					if (ev.getAUC() < bestAUC) {
+						bestAUC = ev.getAUC();
+						bestOut = out;
+						bestIn = null;
+					}
+				}
+				List<Edge> moves = remaining(candidates, ev.getFlips());
+				moves.removeAll(res);
+				double[] aucs = ev.evaluate(moves);
+				for (int k = 0; k < moves.size(); ++k)
+					if (aucs[k] < bestAUC) {
+						bestAUC = aucs[k];
+						bestOut = out;
+						bestIn = moves.get(k);
+					}
+			}
+			if (bestAUC >= auc)
+				break;
+			if (bestOut >= 0)
+				res.remove(bestOut);
+			if (bestIn != null)
+				res.add(bestIn);
+			auc = bestAUC;
+			flips = new ArrayList<>(base);
+			flips.addAll(res);
+			ev.setFlips(flips);
+		}
+		ev.setFlips(base);
+		return res;
+	}
+}
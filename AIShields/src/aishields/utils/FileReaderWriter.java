@@ -8,11 +8,14 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
@@ -122,9 +125,20 @@ public class FileReaderWriter {
 	}
 	
 	public static List<String> splitCSVLine(String line, String csvSep){
+		return splitCSVLine(line, csvSep, 0);
+	}
+	
+	/**
+	 * Splits the line like {@link #splitCSVLine(String)}, but keeps trailing empty cells.
+	 */
+	public static List<String> splitCSVLineKeepingEmpty(String line){
+		return splitCSVLine(line, CSV_SEP, -1);
+	}
+	
+	private static List<String> splitCSVLine(String line, String csvSep, int limit){
 		List<String> res = new ArrayList<>();
 		String quote = null;
-		for (String s : line.split(csvSep)) {
+		for (String s : line.split(csvSep, limit)) {
 			if (quote == null) {
 				if (!s.isEmpty() && s.charAt(0) == '"')
 					quote = s;
@@ -168,6 +182,16 @@ public class FileReaderWriter {
 		}
 	}
 	
+	/**
+	 * Writes the content to a temporary file next to the target and moves it in place, so that the target never
+	 * holds partially written content.
+	 */
+	public static void exportToFileAtomically(List<String> content, String filePath){
+		String tmpPath = filePath + ".tmp";
+		exportToFile(content, tmpPath);
+		moveAtomically(tmpPath, filePath);
+	}
+	
 	public static void appendToFile(String line, String filePath){
 		createIfDoesNotExist(filePath);
 		try {
@@ -189,6 +213,23 @@ public class FileReaderWriter {
 		return res;
 	}
 	
+	/**
+	 * Imports lines of the file, skipping the last line if it is not terminated, e.g., because writing
+	 * to the file was interrupted.
+	 */
+	public static List<String> importCompleteLinesFromFile(String filePath){
+		List<String> res = null;
+		try {
+			String content = new String(Files.readAllBytes(Paths.get(filePath)), CHARSET);
+			res = new ArrayList<>(Arrays.asList(content.split("\\r?\\n", -1)));
+			res.remove(res.size() - 1);
+		} catch (IOException e) {
+			System.err.println("Error during reading from file.");
+			e.printStackTrace();
+		}
+		return res;
+	}
+	
 	public static List<String> importFromResource(String resourcePath){
 		return collectFromStream(getResourceAsStream(resourcePath));
 	}
@@ -297,6 +338,11 @@ public class FileReaderWriter {
 		return Files.newBufferedWriter(Paths.get(filePath), FileReaderWriter.CHARSET);
 	}
 	
+	public static BufferedWriter getAppendingWriter(String filePath) throws IOException {
+		createIfDoesNotExist(filePath);
+		return Files.newBufferedWriter(Paths.get(filePath), FileReaderWriter.CHARSET, StandardOpenOption.APPEND);
+	}
+	
 	public static List<File> listFiles(String dirPath){
 		try {
 			return Files.list(Paths.get(dirPath)).map(p -> p.toFile()).collect(Collectors.toList());
@@ -324,4 +370,28 @@ public class FileReaderWriter {
 			e.printStackTrace();
 		}
 	}
+	
+	/**
+	 * Moves the file, replacing the target, atomically if supported by the file system.
+	 */
+	public static void moveAtomically(String oldPath, String newPath) {
+		try {
+			Files.move(Paths.get(oldPath), Paths.get(newPath), StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			renameFileReplacing(oldPath, newPath);
+		} catch (IOException e) {
+			System.err.println("Error while moving file.");
+			e.printStackTrace();
+		}
+	}
+	
+	private static void renameFileReplacing(String oldPath, String newPath) {
+		try {
+			Files.move(Paths.get(oldPath), Paths.get(newPath), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			System.err.println("Error while moving file.");
+			e.printStackTrace();
+		}
+	}
 }
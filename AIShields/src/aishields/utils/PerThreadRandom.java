@@ -0,0 +1,51 @@
+package aishields.utils;
+
+import java.util.Random;
+
+/**
+ * Random number generator that keeps a separate generator for every thread, so that threads do not contend for
+ * a shared seed and every thread can be seeded independently. Within a single thread it produces exactly the same
+ * numbers as {@link Random} with the same seed.
+ * 
+ * @author Marcin Waniek
+ */
+public class PerThreadRandom extends Random {
+
+	private static final long serialVersionUID = 1L;
+	
+	private transient ThreadLocal<Source> sources;
+	
+	public PerThreadRandom() {
+		super();
+		this.sources = ThreadLocal.withInitial(() -> new Source());
+	}
+	
+	/**
+	 * Seeds the generator of the current thread.
+	 */
+	@Override
+	public void setSeed(long seed) {
+		// called by the constructor of Random before sources are set
+		if (sources != null)
+			sources.get().setSeed(seed);
+	}
+	
+	@Override
+	protected int next(int bits) {
+		return sources.get().nextBits(bits);
+	}
+	
+	@Override
+	public double nextGaussian() {
+		return sources.get().nextGaussian();
+	}
+	
+	private static class Source extends Random {
+		
+		private static final long serialVersionUID = 1L;
+		
+		public int nextBits(int bits) {
+			return next(bits);
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package aishields.utils;
+
+/**
+ * Class computing mean, standard error and 95% confidence interval of a series of numbers in constant memory,
+ * using numerically stable Welford updates. Counters built over separate parts of a series can be merged.
+ * 
+ * @author Marcin Waniek
+ */
+public class RunningStatistics {
+	public static final double CONF95_Z = 1.96;
+	
+	private long n;
+	private double mean;
+	private double m2;
+	
+	public RunningStatistics() {
+		reset();
+	}
+	
+	public void reset() {
+		n = 0;
+		mean = 0.;
+		m2 = 0.;
+	}
+	
+	public RunningStatistics addValue(double v) {
+		++n;
+		double delta = v - mean;
+		mean += delta / n;
+		m2 += delta * (v - mean);
+		return this;
+	}
+	
+	/**
+	 * Adds all values of the other counter.
+	 */
+	public RunningStatistics merge(RunningStatistics o) {
+		if (o.n == 0)
+			return this;
+		long total = n + o.n;
+		double delta = o.mean - mean;
+		mean += delta * o.n / total;
+		m2 += o.m2 + delta * delta * ((double)n * o.n / total);
+		n = total;
+		return this;
+	}
+	
+	public long size() {
+		return n;
+	}
+	
+	public double getMean() {
+		return mean;
+	}
+	
+	/**
+	 * Unbiased estimate of the variance of values.
+	 */
+	public double getVariance() {
+		return n > 1 ? m2 / (n - 1) : 0.;
+	}
+	
+	public double getSD() {
+		return Math.sqrt(getVariance());
+	}
+	
+	/**
+	 * Standard error of the mean.
+	 */
+	public double getStandardError() {
+		return n > 0 ? Math.sqrt(getVariance() / n) : 0.;
+	}
+	
+	public double getConf95() {
+		return CONF95_Z * getStandardError();
+	}
+}
@@ -0,0 +1,117 @@
+package aishields.utils;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thread-safe counters of a staged acceptance process, in which every attempt passes through consecutive stages
+ * until one of them rejects it. For every stage the number of attempts that entered it, the number of attempts
+ * it rejected and the total time spent in it are recorded. Checkpoints are stages that reject nothing, recorded
+ * only to time the work done between two stages.
+ *
+ * @author Marcin Waniek
+ */
+public class StageStatistics {
+
+	private Map<String, long[]> stages;
+
+	public StageStatistics() {
+		this.stages = new LinkedHashMap<>();
+	}
+
+	/**
+	 * Starts timing a new attempt.
+	 */
+	public Attempt startAttempt() {
+		return new Attempt();
+	}
+
+	public synchronized void record(String stage, boolean passed, long nanos) {
+		record(stage, passed, nanos, false);
+	}
+
+	private synchronized void record(String stage, boolean passed, long nanos, boolean checkpoint) {
+		long[] c = stages.computeIfAbsent(stage, s -> new long[4]);
+		++c[0];
+		if (!passed)
+			++c[1];
+		c[2] += nanos;
+		c[3] = checkpoint ? 1 : 0;
+	}
+
+	/**
+	 * Stages in the order in which they were first entered.
+	 */
+	public synchronized List<String> getStages() {
+		return new ArrayList<>(stages.keySet());
+	}
+
+	public synchronized long getEntered(String stage) {
+		return stages.containsKey(stage) ? stages.get(stage)[0] : 0;
+	}
+
+	public synchronized long getRejected(String stage) {
+		return stages.containsKey(stage) ? stages.get(stage)[1] : 0;
+	}
+
+	public synchronized double getSeconds(String stage) {
+		return stages.containsKey(stage) ? stages.get(stage)[2] / 1e9 : 0.;
+	}
+
+	public synchronized boolean isCheckpoint(String stage) {
+		return stages.containsKey(stage) && stages.get(stage)[3] == 1;
+	}
+
+	public double getRejectionRate(String stage) {
+		long entered = getEntered(stage);
+		return entered == 0 ? 0. : (double)getRejected(stage) / entered;
+	}
+
+	@Override
+	public String toString() {
+		DecimalFormat df = new DecimalFormat("#.###");
+		StringBuilder res = new StringBuilder();
+		for (String stage : getStages()) {
+			res.append(stage).append(": entered ").append(getEntered(stage)).append(", ");
+			if (!isCheckpoint(stage))
+				res.append("rejected ").append(getRejected(stage)).append(" (")
+						.append(df.format(100 * getRejectionRate(stage))).append("%), ");
+			res.append(df.format(getSeconds(stage))).append("s\n");
+		}
+		return res.toString();
+	}
+
+	/**
+	 * Single attempt, charging every stage with the time elapsed since the previous one.
+	 */
+	public class Attempt {
+
+		private long last;
+
+		private Attempt() {
+			this.last = System.nanoTime();
+		}
+
+		/**
+		 * Records the stage, returning whether the attempt passed it.
+		 */
+		public boolean pass(String stage, boolean passed) {
+			long now = System.nanoTime();
+			record(stage, passed, now - last, false);
+			last = now;
+			return passed;
+		}
+
+		/**
+		 * Records the checkpoint, charging it with the time elapsed since the previous stage.
+		 */
+		public void mark(String checkpoint) {
+			long now = System.nanoTime();
+			record(checkpoint, true, now - last, true);
+			last = now;
+		}
+	}
+}
@@ -1,6 +1,8 @@
 package aishields.utils;
 
 import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.lang.reflect.Array;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -24,7 +26,7 @@ import java.util.stream.Stream;
  */
 public class Utils {
 
-	public static final Random RAND = new Random();
+	public static final Random RAND = new PerThreadRandom();
 	public static final String WHITESPACE = "\\s+";
 	public static final String LETTERS_ONLY = "[^A-Za-z]+";
 	
@@ -261,6 +263,19 @@ public class Utils {
 	public static String getFileExtension(File f){
 		return f.getName().substring(f.getName().lastIndexOf(".") + 1);
 	}
+	
+	/**
+	 * Returns number of bytes allocated so far by the current thread, or -1 if not supported by the JVM.
+	 */
+	public static long getThreadAllocatedBytes(){
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean)bean;
+			if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled())
+				return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
 		
 	/**
 	 * Generates all sublist of given size.
@@ -18,6 +18,19 @@ public class GraphExporter {
 	public static final String ENCODING = "UTF-8";
 	
 	public static void exportToANET(Graph g, String filePath, List<String> header) {
+		FileReaderWriter.exportToCSV(getANETContent(g, header), filePath, ANETFormat.SEP);
+	}
+	
+	/**
+	 * Exports the graph through a temporary file, so that the file at filePath is either complete or absent.
+	 */
+	public static void exportToANETAtomically(Graph g, String filePath, List<String> header) {
+		String tmpPath = filePath + ".tmp";
+		FileReaderWriter.exportToCSV(getANETContent(g, header), tmpPath, ANETFormat.SEP);
+		FileReaderWriter.moveAtomically(tmpPath, filePath);
+	}
+	
+	private static List<List<String>> getANETContent(Graph g, List<String> header) {
 		List<List<String>> content = new LinkedList<>();
 		content.add(Utils.aList(
 			ANETFormat.NAME_ATTR + ANETFormat.ASSIGN + g.getName(),
@@ -28,7 +41,7 @@ public class GraphExporter {
 			content.add(header);
 		for (Edge e : g.edges())
 			content.add(Utils.aList(e.i().toString(), e.j().toString()));
-		FileReaderWriter.exportToCSV(content, filePath, ANETFormat.SEP);
+		return content;
 	}
 	
 	public static void exportEdges(Graph g, String filePath){
@@ -0,0 +1,195 @@
+package aishields.utils.visualizing;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+import aishields.core.Graph;
+
+/**
+ * Rendering many graphs to PNG files. Graphs are loaded and drawn by a pool of render workers, every one of which
+ * reuses a few image buffers together with their graphics contexts, while encoding and writing files happens
+ * asynchronously on a pool of write workers. A buffer returns to its render worker once its image is written,
+ * so a render worker waits only when all its buffers are being encoded.
+ *
+ * @author Marcin Waniek
+ */
+public class BatchGraphRenderer {
+
+	public static final int DEFAULT_BUFFERS_PER_WORKER = 2;
+
+	private ExecutorService renderers;
+	private ExecutorService writers;
+	private int buffersPerWorker;
+	private float compressionQuality;
+	private ThreadLocal<CanvasPool> canvases;
+	private ThreadLocal<ImageWriter> pngWriters;
+	private List<Future<?>> renderings;
+	private ConcurrentLinkedQueue<Future<?>> writings;
+
+	public BatchGraphRenderer(int renderWorkers, int writeWorkers, int buffersPerWorker) {
+		this.renderers = Executors.newFixedThreadPool(renderWorkers);
+		this.writers = Executors.newFixedThreadPool(writeWorkers);
+		this.buffersPerWorker = buffersPerWorker;
+		this.compressionQuality = -1;
+		this.canvases = ThreadLocal.withInitial(() -> new CanvasPool());
+		this.pngWriters = ThreadLocal.withInitial(() -> ImageIO.getImageWritersByFormatName("png").next());
+		this.renderings = new ArrayList<>();
+		this.writings = new ConcurrentLinkedQueue<>();
+	}
+
+	public BatchGraphRenderer() {
+		this(Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().availableProcessors(),
+				DEFAULT_BUFFERS_PER_WORKER);
+	}
+
+	/**
+	 * Sets the PNG compression quality, from 0 for the smallest files to 1 for the fastest encoding. Negative quality
+	 * keeps the default of the encoder, which produces the same files as {@link GraphVisualizer#exportGraphToPNG}.
+	 */
+	public BatchGraphRenderer setCompressionQuality(float compressionQuality) {
+		this.compressionQuality = compressionQuality;
+		return this;
+	}
+
+	/**
+	 * Schedules rendering of the graph given by the supplier, drawn with parameters computed for it, to a PNG file.
+	 * Both the supplier and the parameters are evaluated by a render worker.
+	 */
+	public void exportGraphToPNG(Supplier<Graph> graph, Function<Graph, VisualParameters> params, String filePath) {
+		renderings.add(renderers.submit(() -> {
+			Graph g = graph.get();
+			VisualParameters vp = params.apply(g);
+			Canvas c = canvases.get().acquire(vp.getNodeLayout().getTotalDim().width,
+					vp.getNodeLayout().getTotalDim().height);
+			try {
+				c.g2d.setTransform(new AffineTransform());
+				GraphVisualizer.drawGraph(g, c.g2d, vp);
+			} catch (RuntimeException e) {
+				c.owner.free.add(c);
+				throw e;
+			}
+			writings.add(writers.submit(() -> {
+				try {
+					writePNG(c.img, filePath);
+				} finally {
+					c.owner.free.add(c);
+				}
+				return null;
+			}));
+			return null;
+		}));
+	}
+
+	/**
+	 * Waits until all scheduled graphs are written and shuts the workers down, returning the number of graphs that
+	 * failed to render.
+	 */
+	public int finish() {
+		int failed = 0;
+		for (Future<?> f : renderings)
+			failed += await(f);
+		for (Future<?> f : writings)
+			failed += await(f);
+		renderers.shutdown();
+		writers.shutdown();
+		return failed;
+	}
+
+	private static int await(Future<?> f) {
+		try {
+			f.get();
+			return 0;
+		} catch (InterruptedException | ExecutionException e) {
+			System.err.println("Error while exporting graph to PNG file.");
+			e.printStackTrace();
+			return 1;
+		}
+	}
+
+	private void writePNG(BufferedImage img, String filePath) throws Exception {
+		File f = new File(filePath);
+		f.getParentFile().mkdirs();
+		ImageWriter writer = pngWriters.get();
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(f));
+				ImageOutputStream ios = new MemoryCacheImageOutputStream(out)) {
+			writer.setOutput(ios);
+			ImageWriteParam param = writer.getDefaultWriteParam();
+			if (compressionQuality >= 0) {
+				param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+				param.setCompressionQuality(compressionQuality);
+			}
+			writer.write(null, new IIOImage(img, null, null), param);
+		} finally {
+			writer.reset();
+		}
+	}
+
+	/**
+	 * Buffers of a single render worker.
+	 */
+	private class CanvasPool {
+
+		private BlockingQueue<Canvas> free;
+		private int created;
+
+		private CanvasPool() {
+			this.free = new ArrayBlockingQueue<>(buffersPerWorker);
+			this.created = 0;
+		}
+
+		/**
+		 * Free buffer of the given dimensions, created if the worker has fewer than buffersPerWorker of them,
+		 * otherwise taken once one is written.
+		 */
+		private Canvas acquire(int w, int h) throws InterruptedException {
+			Canvas c = free.poll();
+			if (c == null && created < buffersPerWorker) {
+				++created;
+				return new Canvas(this, w, h);
+			}
+			if (c == null)
+				c = free.take();
+			if (c.img.getWidth() != w || c.img.getHeight() != h) {
+				c.g2d.dispose();
+				c = new Canvas(this, w, h);
+			}
+			return c;
+		}
+	}
+
+	private static class Canvas {
+
+		private CanvasPool owner;
+		private BufferedImage img;
+		private Graphics2D g2d;
+
+		private Canvas(CanvasPool owner, int w, int h) {
+			this.owner = owner;
+			this.img = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+			this.g2d = img.createGraphics();
+		}
+	}
+}
@@ -67,7 +67,7 @@ public class GraphVisualizer {
 		}
 	}
 
-	private static void drawGraph(Graph g, Graphics2D g2d, VisualParameters vp) {
+	static void drawGraph(Graph g, Graphics2D g2d, VisualParameters vp) {
 		NodeLayout p = vp.getNodeLayout();
 	    g2d.setColor(vp.getBackgroundColor());
 	    g2d.fillRect(0, 0, p.getTotalDim().width, p.getTotalDim().height);